@@ -0,0 +1,150 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes random calendars of a given shape. The same seed and shape always give the same events and
+ * requests, so that benchmark runs can be compared with each other.
+ */
+public final class CalendarGenerator {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private final Random random;
+  private final int people;
+  private final int eventsPerPerson;
+  private final int attendeesPerEvent;
+  private final double fragmentation;
+
+  /**
+   * Creates a new generator.
+   *
+   * @param seed The seed of every random choice.
+   * @param people How many people are on the calendar. Must be positive.
+   * @param eventsPerPerson How many events each person attends, on average.
+   * @param attendeesPerEvent How many people attend each event. Must be between 1 and
+   *     {@code people}.
+   * @param fragmentation The share of events that are short, from 0 to 1.
+   */
+  public CalendarGenerator(
+      long seed, int people, int eventsPerPerson, int attendeesPerEvent, double fragmentation) {
+    if (people <= 0) {
+      throw new IllegalArgumentException("people must be positive");
+    }
+
+    if (attendeesPerEvent <= 0 || attendeesPerEvent > people) {
+      throw new IllegalArgumentException("attendeesPerEvent must be between 1 and people");
+    }
+
+    if (fragmentation < 0 || fragmentation > 1) {
+      throw new IllegalArgumentException("fragmentation must be between 0 and 1");
+    }
+
+    this.random = new Random(seed);
+    this.people = people;
+    this.eventsPerPerson = eventsPerPerson;
+    this.attendeesPerEvent = attendeesPerEvent;
+    this.fragmentation = fragmentation;
+  }
+
+  /**
+   * Returns the name of the person with the given number.
+   */
+  public static String person(int number) {
+    return "Person " + number;
+  }
+
+  /**
+   * Returns enough events for each person to attend {@code eventsPerPerson} of them on average.
+   */
+  public List<Event> events() {
+    int count = (int) ((long) people * eventsPerPerson / attendeesPerEvent);
+    List<Event> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(new Event("Event " + i, randomTime(), randomPeople(attendeesPerEvent)));
+    }
+    return events;
+  }
+
+  /**
+   * Returns {@code count} requests, each for {@code attendees} mandatory and
+   * {@code optionalAttendees} optional people and a duration of 15 minutes to an hour.
+   */
+  public List<MeetingRequest> requests(int count, int attendees, int optionalAttendees) {
+    List<MeetingRequest> requests = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      List<String> invited = randomPeople(Math.min(attendees + optionalAttendees, people));
+      MeetingRequest request = new MeetingRequest(
+          invited.subList(0, Math.min(attendees, invited.size())), 15 * (1 + random.nextInt(4)));
+      for (String person : invited.subList(request.getAttendees().size(), invited.size())) {
+        request.addOptionalAttendee(person);
+      }
+      requests.add(request);
+    }
+    return requests;
+  }
+
+  /**
+   * Returns {@code count} random times, shaped like the times of generated events.
+   */
+  public List<TimeRange> times(int count) {
+    List<TimeRange> times = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      times.add(randomTime());
+    }
+    return times;
+  }
+
+  private TimeRange randomTime() {
+    int duration = random.nextDouble() < fragmentation
+        ? 5 + random.nextInt(11)
+        : 30 + random.nextInt(91);
+    return TimeRange.fromStartDuration(random.nextInt(MINUTES_PER_DAY - duration + 1), duration);
+  }
+
+  /**
+   * Returns {@code count} different people in a random order.
+   */
+  private List<String> randomPeople(int count) {
+    List<String> chosen = new ArrayList<>(count);
+    if (count * 2 > people) {
+      // Shuffle everyone when most of them are needed anyway.
+      List<Integer> everyone = new ArrayList<>(people);
+      for (int i = 0; i < people; i++) {
+        everyone.add(i);
+      }
+      Collections.shuffle(everyone, random);
+      for (int number : everyone.subList(0, count)) {
+        chosen.add(person(number));
+      }
+      return chosen;
+    }
+
+    while (chosen.size() < count) {
+      String person = person(random.nextInt(people));
+      if (!chosen.contains(person)) {
+        chosen.add(person);
+      }
+    }
+    return chosen;
+  }
+}
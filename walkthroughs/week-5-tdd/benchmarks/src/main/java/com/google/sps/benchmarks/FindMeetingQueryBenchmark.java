@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link FindMeetingQuery} over generated calendars of every shape in the parameters.
+ * Each invocation answers the next of a fixed set of requests, so that one lucky request does not
+ * decide the result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FindMeetingQueryBenchmark {
+  private static final long SEED = 20200101L;
+  private static final int REQUESTS = 256;
+
+  @Param({"10", "1000"})
+  public int people;
+
+  @Param({"4", "32"})
+  public int eventsPerPerson;
+
+  @Param({"2", "8"})
+  public int attendeesPerEvent;
+
+  @Param({"0.1", "0.9"})
+  public double fragmentation;
+
+  private final FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+  private List<Event> events;
+  private List<MeetingRequest> requests;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator =
+        new CalendarGenerator(SEED, people, eventsPerPerson, attendeesPerEvent, fragmentation);
+    events = generator.events();
+    requests = generator.requests(REQUESTS, 3, 2);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return findMeetingQuery.query(events, nextRequest());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> getRelevantEvents() {
+    return findMeetingQuery.getRelevantEvents(nextRequest().getAttendees(), events);
+  }
+
+  private MeetingRequest nextRequest() {
+    MeetingRequest request = requests.get(next);
+    next = (next + 1) % REQUESTS;
+    return request;
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.AttendeeCalendar;
+import com.google.sps.AttendeeIndex;
+import com.google.sps.BusyTimeMerger;
+import com.google.sps.CalendarService;
+import com.google.sps.IntervalSweep;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sorting every busy interval of a request with merging the per-attendee lists that a
+ * calendar keeps sorted, for requests of a few up to a thousand attendees. The calendar is either an
+ * {@link AttendeeIndex} built once, or a snapshot of a {@link CalendarService} as the servlets query
+ * it, whose lists are built from its trees by the first query that asks for them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LargeRequestBenchmark {
+  private static final long SEED = 20200101L;
+  private static final int REQUESTS = 64;
+
+  @Param({"2000"})
+  public int people;
+
+  @Param({"8"})
+  public int eventsPerPerson;
+
+  @Param({"16", "128", "1024"})
+  public int attendees;
+
+  @Param({"index", "snapshot"})
+  public String calendarType;
+
+  private final BusyTimeMerger merger = new BusyTimeMerger();
+  private AttendeeCalendar calendar;
+  private List<MeetingRequest> requests;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator = new CalendarGenerator(SEED, people, eventsPerPerson, 2, 0.5);
+    calendar = calendarType.equals("index")
+        ? new AttendeeIndex(generator.events())
+        : new CalendarService(generator.events()).snapshot();
+    requests = generator.requests(REQUESTS, attendees, 0);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> sortAndSweep() {
+    MeetingRequest request = nextRequest();
+    IntervalSweep sweep = new IntervalSweep();
+    for (String person : request.getAttendees()) {
+      sweep.addAll(calendar.getBusyTimes(person));
+    }
+    return sweep.findAvailableTimes(request.getDuration());
+  }
+
+  @Benchmark
+  public Collection<TimeRange> mergeSorted() {
+    MeetingRequest request = nextRequest();
+    List<List<TimeRange>> busyTimes = new ArrayList<>();
+    for (String person : request.getAttendees()) {
+      busyTimes.add(calendar.getBusyTimes(person));
+    }
+    return merger.findAvailableTimes(busyTimes, request.getDuration());
+  }
+
+  private MeetingRequest nextRequest() {
+    MeetingRequest request = requests.get(next);
+    next = (next + 1) % requests.size();
+    return request;
+  }
+}
@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the {@link TimeRange} comparisons that every scheduling engine is built from, over
+ * generated times that are mostly long or mostly short.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimeRangeBenchmark {
+  private static final long SEED = 20200101L;
+
+  @Param({"1000"})
+  public int times;
+
+  @Param({"0.1", "0.9"})
+  public double fragmentation;
+
+  private List<TimeRange> ranges;
+
+  @Setup
+  public void setUp() {
+    ranges = new CalendarGenerator(SEED, 1, 0, 1, fragmentation).times(times);
+  }
+
+  @Benchmark
+  public List<TimeRange> sortByStart() {
+    List<TimeRange> sorted = new ArrayList<>(ranges);
+    Collections.sort(sorted, TimeRange.ORDER_BY_START);
+    return sorted;
+  }
+
+  @Benchmark
+  public List<TimeRange> sortByEnd() {
+    List<TimeRange> sorted = new ArrayList<>(ranges);
+    Collections.sort(sorted, TimeRange.ORDER_BY_END);
+    return sorted;
+  }
+
+  /**
+   * Checks every time against the one after it, as a sweep over sorted times does.
+   */
+  @Benchmark
+  public void overlapsAndContains(Blackhole blackhole) {
+    for (int i = 1; i < ranges.size(); i++) {
+      TimeRange a = ranges.get(i - 1);
+      TimeRange b = ranges.get(i);
+      blackhole.consume(a.overlaps(b));
+      blackhole.consume(a.contains(b));
+    }
+  }
+
+  @Benchmark
+  public void equalsAndHashCode(Blackhole blackhole) {
+    for (int i = 1; i < ranges.size(); i++) {
+      blackhole.consume(ranges.get(i - 1).equals(ranges.get(i)));
+      blackhole.consume(ranges.get(i).hashCode());
+    }
+  }
+}
@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.sps.WireFormat;
+import com.google.gson.Gson;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of encoding the responses of {@code /get-events} and {@code /query} as JSON
+ * with Gson and in the binary {@link WireFormat}. The size of each response in both encodings is
+ * printed once per trial, before the measurements start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+  private static final long SEED = 20200101L;
+  private static final int REQUESTS = 256;
+
+  @Param({"10", "1000"})
+  public int people;
+
+  @Param({"4"})
+  public int eventsPerPerson;
+
+  @Param({"0.1", "0.9"})
+  public double fragmentation;
+
+  private final Gson gson = new Gson();
+  private List<Event> events;
+  private List<List<TimeRange>> answers;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    CalendarGenerator generator =
+        new CalendarGenerator(SEED, people, eventsPerPerson, 2, fragmentation);
+    events = generator.events();
+
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    answers = new ArrayList<>();
+    long jsonAnswerBytes = 0;
+    long binaryAnswerBytes = 0;
+    for (MeetingRequest request : generator.requests(REQUESTS, 3, 0)) {
+      List<TimeRange> answer = new ArrayList<>(findMeetingQuery.query(events, request));
+      answers.add(answer);
+      jsonAnswerBytes += toJson(answer).length;
+      binaryAnswerBytes += WireFormat.encodeTimeRanges(answer).length;
+    }
+
+    System.out.printf("%nevents: %d bytes as JSON, %d bytes binary%n",
+        toJson(events).length, WireFormat.encodeEvents(events).length);
+    System.out.printf("query answers: %d bytes as JSON, %d bytes binary, on average%n",
+        jsonAnswerBytes / REQUESTS, binaryAnswerBytes / REQUESTS);
+  }
+
+  @Benchmark
+  public byte[] eventsAsJson() {
+    return toJson(events);
+  }
+
+  @Benchmark
+  public byte[] eventsAsBinary() {
+    return WireFormat.encodeEvents(events);
+  }
+
+  @Benchmark
+  public byte[] answerAsJson() {
+    return toJson(nextAnswer());
+  }
+
+  @Benchmark
+  public byte[] answerAsBinary() {
+    return WireFormat.encodeTimeRanges(nextAnswer());
+  }
+
+  private byte[] toJson(Object response) {
+    return gson.toJson(response).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private List<TimeRange> nextAnswer() {
+    List<TimeRange> answer = answers.get(next);
+    next = (next + 1) % answers.size();
+    return answer;
+  }
+}
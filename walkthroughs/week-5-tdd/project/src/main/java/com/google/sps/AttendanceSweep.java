@@ -0,0 +1,175 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sweeps over the possible start times of a meeting and tracks who could come to a meeting starting
+ * at each of them. Someone can come to a meeting starting at {@code t} if none of their busy times
+ * overlap {@code [t, t + duration)}, which is the same as {@code t} being outside
+ * {@code [busyStart - duration + 1, busyEnd)} for every one of their busy times. Turning busy times
+ * into blocked start times this way means a single sorted pass finds every run of start times that
+ * share the same set of available people.
+ *
+ * <p>Busy times can be added for people who must be free (they only decide whether a start time can
+ * be used at all) and for people who are counted (they decide who can come).
+ */
+final class AttendanceSweep {
+  /**
+   * Receives each run of usable start times, in order.
+   */
+  interface Listener {
+    /**
+     * Called for the start times from {@code firstStart} (inclusive) to {@code endStart}
+     * (exclusive), during which {@code availableCount} of the counted people can come. Use
+     * {@link AttendanceSweep#isAvailable(int)} to find out which ones.
+     */
+    void onRun(int firstStart, int endStart, int availableCount);
+  }
+
+  // Index used in the encoded points for the people who must be free.
+  private static final int REQUIRED = 0;
+
+  private final int duration;
+  private final int endOfStarts;
+  private final List<String> attendees = new ArrayList<>();
+
+  // Each point is encoded as (time << 32) | (index << 1) | (1 if it opens a blocked range), so that
+  // sorting the array sorts the points by time without any boxing.
+  private long[] points = new long[16];
+  private int size;
+
+  private int[] blockedDepth;
+
+  /**
+   * Creates a sweep for a meeting that is {@code duration} minutes long. A meeting with no duration
+   * is treated as taking up the minute it starts in.
+   */
+  AttendanceSweep(long duration) {
+    if (duration < 0 || duration > TimeRange.WHOLE_DAY.duration()) {
+      throw new IllegalArgumentException("duration must fit in a day");
+    }
+
+    this.duration = Math.max(1, (int) duration);
+    this.endOfStarts = TimeRange.WHOLE_DAY.end() - this.duration + 1;
+  }
+
+  /**
+   * Adds the busy times of someone who must be free for a start time to be used.
+   */
+  void addRequired(Collection<TimeRange> busyTimes) {
+    for (TimeRange busy : busyTimes) {
+      addBlocked(REQUIRED, busy);
+    }
+  }
+
+  /**
+   * Adds someone who is counted, and returns the index used for them by
+   * {@link #isAvailable(int)} and {@link #getAttendee(int)}.
+   */
+  int addAttendee(String attendee, Collection<TimeRange> busyTimes) {
+    attendees.add(attendee);
+    int index = attendees.size();
+    for (TimeRange busy : busyTimes) {
+      addBlocked(index, busy);
+    }
+    return index - 1;
+  }
+
+  /**
+   * Returns the number of counted people.
+   */
+  int attendeeCount() {
+    return attendees.size();
+  }
+
+  /**
+   * Returns the counted person with the given index.
+   */
+  String getAttendee(int index) {
+    return attendees.get(index);
+  }
+
+  /**
+   * Returns whether the counted person with the given index can come during the run that is
+   * currently being reported. Only valid inside {@link Listener#onRun}.
+   */
+  boolean isAvailable(int index) {
+    return blockedDepth[index + 1] == 0;
+  }
+
+  /**
+   * Returns the smallest range that covers every meeting starting from {@code firstStart}
+   * (inclusive) to {@code endStart} (exclusive).
+   */
+  TimeRange toTimeRange(int firstStart, int endStart) {
+    return TimeRange.fromStartEnd(firstStart, endStart - 1 + duration, false);
+  }
+
+  /**
+   * Reports every run of start times where all required people are free to {@code listener}. The
+   * sweep can be run more than once.
+   */
+  void sweep(Listener listener) {
+    Arrays.sort(points, 0, size);
+
+    blockedDepth = new int[attendees.size() + 1];
+    int availableCount = attendees.size();
+    int cursor = 0;
+    int i = 0;
+    while (true) {
+      int time = i < size ? (int) (points[i] >> 32) : endOfStarts;
+      if (time > cursor && blockedDepth[REQUIRED] == 0) {
+        listener.onRun(cursor, time, availableCount);
+      }
+      if (i == size) {
+        return;
+      }
+
+      cursor = time;
+      for (; i < size && (int) (points[i] >> 32) == time; i++) {
+        int index = (int) points[i] >>> 1;
+        boolean opens = (points[i] & 1) == 1;
+        if (opens && blockedDepth[index]++ == 0 && index != REQUIRED) {
+          availableCount--;
+        } else if (!opens && --blockedDepth[index] == 0 && index != REQUIRED) {
+          availableCount++;
+        }
+      }
+    }
+  }
+
+  private void addBlocked(int index, TimeRange busy) {
+    if (busy.duration() <= 0) {
+      return;
+    }
+
+    int from = Math.max(0, busy.start() - duration + 1);
+    int to = Math.min(endOfStarts, busy.end());
+    if (to <= from) {
+      return;
+    }
+
+    if (size + 2 > points.length) {
+      points = Arrays.copyOf(points, points.length * 2);
+    }
+    points[size++] = ((long) from << 32) | ((long) index << 1) | 1;
+    points[size++] = ((long) to << 32) | ((long) index << 1);
+  }
+}
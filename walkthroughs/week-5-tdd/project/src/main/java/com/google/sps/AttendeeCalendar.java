@@ -0,0 +1,29 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.List;
+
+/**
+ * Read access to when people are busy, which is all that scheduling a meeting needs to know about a
+ * calendar.
+ */
+public interface AttendeeCalendar {
+  /**
+   * Returns a read-only list of the times when {@code attendee} is busy, sorted by start. People
+   * who do not attend any event get an empty list.
+   */
+  List<TimeRange> getBusyTimes(String attendee);
+}
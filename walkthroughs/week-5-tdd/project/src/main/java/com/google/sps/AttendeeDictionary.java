@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps attendee names to dense int ids, starting at 0, in the order they are first seen. The binary
+ * formats use the ids in place of names: a {@link MappedCalendar} keeps each attendee's busy times
+ * in a section found by id, so a query only hashes the names it asks for once, and
+ * {@link WireFormat} writes each name once. Dictionaries are not thread-safe while they are being
+ * filled and are considered read-only afterwards.
+ */
+public final class AttendeeDictionary {
+  /** The id returned for a name that is not in the dictionary. */
+  public static final int NOT_FOUND = -1;
+
+  private final Map<String, Integer> ids = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Returns the id of {@code name}, giving it the next free id if it does not have one yet.
+   */
+  public int encode(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    Integer id = ids.get(name);
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+    }
+    return id;
+  }
+
+  /**
+   * Returns the sorted, distinct ids of {@code names}, giving new names the next free ids.
+   */
+  public int[] encodeAll(Collection<String> names) {
+    int[] encoded = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      encoded[size++] = encode(name);
+    }
+    return sortedDistinct(encoded, size);
+  }
+
+  /**
+   * Returns the id of {@code name}, or {@link #NOT_FOUND} if it is not in the dictionary.
+   */
+  public int lookup(String name) {
+    Integer id = ids.get(name);
+    return id == null ? NOT_FOUND : id;
+  }
+
+  /**
+   * Returns the sorted, distinct ids of the names in {@code names} that are in the dictionary. The
+   * others are left out, since nothing has been encoded for them.
+   */
+  public int[] lookupAll(Collection<String> names) {
+    int[] found = new int[names.size()];
+    int size = 0;
+    for (String name : names) {
+      int id = lookup(name);
+      if (id != NOT_FOUND) {
+        found[size++] = id;
+      }
+    }
+    return sortedDistinct(found, size);
+  }
+
+  /**
+   * Returns the name with the given id.
+   */
+  public String nameOf(int id) {
+    return names.get(id);
+  }
+
+  /**
+   * Returns the number of names in the dictionary, which is also the next id it will hand out.
+   */
+  public int size() {
+    return names.size();
+  }
+
+  private static int[] sortedDistinct(int[] ids, int size) {
+    Arrays.sort(ids, 0, size);
+    int distinct = 0;
+    for (int i = 0; i < size; i++) {
+      if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+  }
+}
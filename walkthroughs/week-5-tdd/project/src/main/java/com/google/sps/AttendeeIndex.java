@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index from each attendee to the times they are busy, sorted by start. The index is built once
+ * over a collection of events so that a query only touches the intervals of the people it names,
+ * instead of scanning every event on the calendar. Indexes are considered read-only.
+ */
+public final class AttendeeIndex implements AttendeeCalendar {
+  private final Map<String, List<TimeRange>> busyTimes = new HashMap<>();
+
+  /**
+   * Creates a new index.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public AttendeeIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    Map<String, List<TimeRange>> unsorted = new HashMap<>();
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        unsorted.computeIfAbsent(attendee, person -> new ArrayList<>()).add(event.getWhen());
+      }
+    }
+
+    // Sort once here so that every query can rely on the order without paying for it again.
+    for (Map.Entry<String, List<TimeRange>> entry : unsorted.entrySet()) {
+      List<TimeRange> ranges = entry.getValue();
+      Collections.sort(ranges, TimeRange.ORDER_BY_START);
+      busyTimes.put(entry.getKey(), Collections.unmodifiableList(ranges));
+    }
+  }
+
+  @Override
+  public List<TimeRange> getBusyTimes(String attendee) {
+    List<TimeRange> ranges = busyTimes.get(attendee);
+    return ranges == null ? Collections.emptyList() : ranges;
+  }
+
+  /**
+   * Returns the number of people who attend at least one indexed event.
+   */
+  public int size() {
+    return busyTimes.size();
+  }
+}
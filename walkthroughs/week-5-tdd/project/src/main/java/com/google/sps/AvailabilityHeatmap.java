@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+/**
+ * Counts how many people in a group are free during each bucket of the day, for drawing the
+ * availability of the whole group at once. Every busy time adds one to the bucket it starts in and
+ * takes one away after the bucket it ends in, so a single prefix sum over this difference array
+ * gives every bucket's count, however many people and busy times there are.
+ */
+public final class AvailabilityHeatmap {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private AvailabilityHeatmap() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the number of buckets of {@code bucketMinutes} minutes in a day. The last bucket is
+   * shorter when the day does not divide evenly, and a bucket of a day or more is the whole day.
+   */
+  public static int bucketCount(int bucketMinutes) {
+    if (bucketMinutes <= 0) {
+      throw new IllegalArgumentException("bucketMinutes must be positive");
+    }
+
+    if (bucketMinutes >= MINUTES_PER_DAY) {
+      return 1;
+    }
+    return (MINUTES_PER_DAY + bucketMinutes - 1) / bucketMinutes;
+  }
+
+  /**
+   * Returns, for each bucket of {@code bucketMinutes} minutes from the start of the day, how many
+   * of {@code attendees} are free for the whole bucket. With one-minute buckets this is the number
+   * of people free at each minute.
+   *
+   * @param calendar Where to read busy times from. Must be non-null.
+   * @param attendees The people to count. Names given more than once are counted once.
+   * @param bucketMinutes The length of each bucket. Must be positive.
+   */
+  public static int[] freeCounts(
+      AttendeeCalendar calendar, Collection<String> attendees, int bucketMinutes) {
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    int buckets = bucketCount(bucketMinutes);
+    // A longer bucket still ends with the day, and rounding up by a shorter one cannot overflow.
+    int bucketLength = Math.min(bucketMinutes, MINUTES_PER_DAY);
+    Collection<String> people = new LinkedHashSet<>(attendees);
+
+    // busyDelta[b] is how many more people are busy in bucket b than in bucket b - 1.
+    int[] busyDelta = new int[buckets + 1];
+    for (String person : people) {
+      // Busy times come sorted by start. Start each one after the buckets already counted for this
+      // person, so that overlapping or nearby busy times only count the person once per bucket.
+      int countedUntil = 0;
+      for (TimeRange busy : calendar.getBusyTimes(person)) {
+        int start = Math.max(busy.start(), 0);
+        int end = Math.min(busy.end(), MINUTES_PER_DAY);
+        if (end <= start) {
+          continue;
+        }
+
+        int firstBucket = Math.max(start / bucketLength, countedUntil);
+        int endBucket = (end + bucketLength - 1) / bucketLength;
+        if (firstBucket < endBucket) {
+          busyDelta[firstBucket]++;
+          busyDelta[endBucket]--;
+          countedUntil = endBucket;
+        }
+      }
+    }
+
+    int[] freeCounts = new int[buckets];
+    int busy = 0;
+    for (int i = 0; i < buckets; i++) {
+      busy += busyDelta[i];
+      freeCounts[i] = people.size() - busy;
+    }
+    return freeCounts;
+  }
+}
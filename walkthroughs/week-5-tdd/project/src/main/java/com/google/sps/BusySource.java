@@ -0,0 +1,35 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Answers when some of a person's busy times leave them free, over any number of days, in epoch
+ * minutes. {@link MultiDayCalendar} combines several of these per attendee by pushing a candidate
+ * start forward until none of them moves it any more.
+ */
+interface BusySource {
+  /**
+   * Returns a time at or after {@code from} and no later than the earliest time when these busy
+   * times leave {@code duration} free minutes in a row. Returns {@code from} only if the minutes
+   * from {@code from} on are free. {@code duration} must be positive.
+   */
+  long nextFree(long from, long duration);
+
+  /**
+   * Returns the start of the first busy time that ends after {@code from}, or
+   * {@code Long.MAX_VALUE} if there is none.
+   */
+  long nextBusy(long from);
+}
@@ -0,0 +1,253 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds free time from busy times that are already sorted per attendee, as every
+ * {@link AttendeeCalendar} returns them, by merging the sorted lists instead of sorting all of
+ * their intervals again. That takes O(n log k) for n intervals of k attendees, rather than
+ * O(n log n), as long as the calendar hands out lists it already holds: an {@link AttendeeIndex}
+ * always does, and a {@link CalendarSnapshot} does once it has listed an attendee's times.
+ *
+ * <p>A few lists are merged at once through a heap of the next interval of each list. Requests
+ * with many attendees and many intervals are split in halves on a {@link ForkJoinPool} instead,
+ * and the merged halves are merged again pairwise. Overlapping and touching intervals are joined at
+ * every step, so the lists only get shorter as they go up. Mergers are thread-safe.
+ */
+public final class BusyTimeMerger {
+  /** Requests with at least this many attendees are worth merging rather than sweeping. */
+  public static final int MIN_ATTENDEES = 32;
+
+  /** Up to this many lists are merged through one heap. */
+  static final int HEAP_MERGE_LISTS = 16;
+
+  private static final int DEFAULT_LEAF_INTERVALS = 4096;
+
+  private final ForkJoinPool pool;
+  private final int leafIntervals;
+
+  /**
+   * Creates a merger that splits big requests up on the common pool.
+   */
+  public BusyTimeMerger() {
+    this(ForkJoinPool.commonPool(), DEFAULT_LEAF_INTERVALS);
+  }
+
+  /**
+   * Creates a merger that splits requests with more than {@code leafIntervals} intervals in total
+   * up on {@code pool}.
+   */
+  BusyTimeMerger(ForkJoinPool pool, int leafIntervals) {
+    this.pool = pool;
+    this.leafIntervals = leafIntervals;
+  }
+
+  /**
+   * Returns the times when the meeting in {@code request} could happen. The answer is the same as
+   * the one from {@link FindMeetingQuery#query(AttendeeCalendar, MeetingRequest)}.
+   */
+  public Collection<TimeRange> query(AttendeeCalendar calendar, MeetingRequest request) {
+    return FindMeetingQuery.queryWith(request, (attendees, duration) ->
+        findAvailableTimes(FindMeetingQuery.busyTimesOf(calendar, attendees), duration));
+  }
+
+  /**
+   * Returns the free ranges of the day that are at least {@code duration} minutes long, ordered by
+   * start, given lists of busy times that are each sorted by start.
+   */
+  public List<TimeRange> findAvailableTimes(List<List<TimeRange>> busyTimes, long duration) {
+    int[] merged = merge(busyTimes);
+    List<TimeRange> availableTimes = new ArrayList<>();
+    int freeStart = TimeRange.START_OF_DAY;
+    for (int i = 0; i < merged.length; i += 2) {
+      addIfLongEnough(availableTimes, freeStart, merged[i], duration);
+      freeStart = merged[i + 1];
+    }
+    addIfLongEnough(availableTimes, freeStart, TimeRange.WHOLE_DAY.end(), duration);
+    return availableTimes;
+  }
+
+  /**
+   * Returns the union of {@code busyTimes}, clipped to the day, as the start and end of each of its
+   * disjoint intervals in order.
+   */
+  int[] merge(List<List<TimeRange>> busyTimes) {
+    int[] offsets = new int[busyTimes.size() + 1];
+    for (int i = 0; i < busyTimes.size(); i++) {
+      offsets[i + 1] = offsets[i] + busyTimes.get(i).size();
+    }
+
+    MergeTask task = new MergeTask(busyTimes, offsets, 0, busyTimes.size());
+    return task.isLeaf() ? task.compute() : pool.invoke(task);
+  }
+
+  /**
+   * Merges the lists from {@code from} up to {@code to}, splitting them in halves while there are
+   * too many of them to merge through one heap.
+   */
+  private final class MergeTask extends RecursiveTask<int[]> {
+    private final List<List<TimeRange>> busyTimes;
+    private final int[] offsets;
+    private final int from;
+    private final int to;
+
+    MergeTask(List<List<TimeRange>> busyTimes, int[] offsets, int from, int to) {
+      this.busyTimes = busyTimes;
+      this.offsets = offsets;
+      this.from = from;
+      this.to = to;
+    }
+
+    boolean isLeaf() {
+      return to - from <= HEAP_MERGE_LISTS || offsets[to] - offsets[from] <= leafIntervals;
+    }
+
+    @Override
+    protected int[] compute() {
+      if (to - from <= HEAP_MERGE_LISTS) {
+        return heapMerge(busyTimes.subList(from, to), offsets[to] - offsets[from]);
+      }
+      int middle = (from + to) >>> 1;
+      MergeTask left = new MergeTask(busyTimes, offsets, from, middle);
+      MergeTask right = new MergeTask(busyTimes, offsets, middle, to);
+      if (isLeaf()) {
+        return mergeTwo(left.compute(), right.compute());
+      }
+      left.fork();
+      int[] rightMerged = right.compute();
+      return mergeTwo(left.join(), rightMerged);
+    }
+  }
+
+  /**
+   * Merges a few sorted lists, always taking the earliest next interval from a binary heap of list
+   * indices.
+   */
+  static int[] heapMerge(List<List<TimeRange>> busyTimes, int total) {
+    int k = busyTimes.size();
+    int[] heap = new int[k];
+    int[] positions = new int[k];
+    int heapSize = 0;
+    for (int list = 0; list < k; list++) {
+      if (!busyTimes.get(list).isEmpty()) {
+        heap[heapSize++] = list;
+      }
+    }
+    for (int i = heapSize / 2 - 1; i >= 0; i--) {
+      siftDown(heap, heapSize, i, busyTimes, positions);
+    }
+
+    Joiner joiner = new Joiner(total);
+    while (heapSize > 0) {
+      int list = heap[0];
+      TimeRange next = busyTimes.get(list).get(positions[list]++);
+      joiner.add(next.start(), next.end());
+      if (positions[list] == busyTimes.get(list).size()) {
+        heap[0] = heap[--heapSize];
+      }
+      siftDown(heap, heapSize, 0, busyTimes, positions);
+    }
+    return joiner.toArray();
+  }
+
+  private static void siftDown(int[] heap, int heapSize, int i, List<List<TimeRange>> busyTimes,
+      int[] positions) {
+    while (true) {
+      int smallest = i;
+      for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+        if (startOf(heap[child], busyTimes, positions)
+            < startOf(heap[smallest], busyTimes, positions)) {
+          smallest = child;
+        }
+      }
+      if (smallest == i) {
+        return;
+      }
+      int swap = heap[i];
+      heap[i] = heap[smallest];
+      heap[smallest] = swap;
+      i = smallest;
+    }
+  }
+
+  private static int startOf(int list, List<List<TimeRange>> busyTimes, int[] positions) {
+    return busyTimes.get(list).get(positions[list]).start();
+  }
+
+  /**
+   * Merges two lists of disjoint intervals, each in order, as {@link #merge} returns them.
+   */
+  static int[] mergeTwo(int[] a, int[] b) {
+    Joiner joiner = new Joiner((a.length + b.length) / 2);
+    int i = 0;
+    int j = 0;
+    while (i < a.length || j < b.length) {
+      if (j == b.length || (i < a.length && a[i] <= b[j])) {
+        joiner.add(a[i], a[i + 1]);
+        i += 2;
+      } else {
+        joiner.add(b[j], b[j + 1]);
+        j += 2;
+      }
+    }
+    return joiner.toArray();
+  }
+
+  /**
+   * Joins intervals that arrive sorted by start into disjoint ones, clipping them to the day.
+   */
+  private static final class Joiner {
+    private int[] merged;
+    private int size;
+
+    Joiner(int capacity) {
+      merged = new int[2 * Math.max(capacity, 1)];
+    }
+
+    void add(int start, int end) {
+      start = Math.max(start, TimeRange.START_OF_DAY);
+      end = Math.min(end, TimeRange.WHOLE_DAY.end());
+      if (end <= start) {
+        // Nobody is busy during an empty interval.
+        return;
+      }
+
+      if (size > 0 && start <= merged[size - 1]) {
+        merged[size - 1] = Math.max(merged[size - 1], end);
+        return;
+      }
+      merged[size++] = start;
+      merged[size++] = end;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(merged, size);
+    }
+  }
+
+  private static void addIfLongEnough(
+      List<TimeRange> availableTimes, int start, int end, long duration) {
+    if (end > start && end - start >= duration) {
+      availableTimes.add(TimeRange.fromStartEnd(start, end, false));
+    }
+  }
+}
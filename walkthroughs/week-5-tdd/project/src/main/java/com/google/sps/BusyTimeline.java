@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The busy times of one person over any number of days, merged into disjoint ranges sorted by start.
+ * A segment tree holds the largest free gap within every block of consecutive ranges, so finding the
+ * next free gap of a given length skips whole blocks of short gaps and takes logarithmic time.
+ * Timelines are considered read-only.
+ */
+final class BusyTimeline implements BusySource {
+  static final BusyTimeline EMPTY = new BusyTimeline(Collections.<CalendarRange>emptyList());
+
+  private final long[] starts;
+  private final long[] ends;
+
+  // maxGap[node] is the longest gap in the node's block, where gap i is the free time between busy
+  // range i and busy range i + 1. Nodes are laid out as a complete binary tree starting at 1.
+  private final long[] maxGap;
+  private final int leaves;
+
+  BusyTimeline(Collection<CalendarRange> busyTimes) {
+    List<CalendarRange> sorted = new ArrayList<>();
+    for (CalendarRange busy : busyTimes) {
+      if (busy.duration() > 0) {
+        sorted.add(busy);
+      }
+    }
+    Collections.sort(sorted, CalendarRange.ORDER_BY_START);
+
+    long[] mergedStarts = new long[sorted.size()];
+    long[] mergedEnds = new long[sorted.size()];
+    int count = 0;
+    for (CalendarRange busy : sorted) {
+      if (count > 0 && busy.start() <= mergedEnds[count - 1]) {
+        mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], busy.end());
+      } else {
+        mergedStarts[count] = busy.start();
+        mergedEnds[count] = busy.end();
+        count++;
+      }
+    }
+    starts = Arrays.copyOf(mergedStarts, count);
+    ends = Arrays.copyOf(mergedEnds, count);
+
+    int gaps = Math.max(0, count - 1);
+    int size = 1;
+    while (size < gaps) {
+      size *= 2;
+    }
+    leaves = size;
+    maxGap = new long[2 * size];
+    for (int i = 0; i < gaps; i++) {
+      maxGap[size + i] = starts[i + 1] - ends[i];
+    }
+    for (int node = size - 1; node > 0; node--) {
+      maxGap[node] = Math.max(maxGap[2 * node], maxGap[2 * node + 1]);
+    }
+  }
+
+  /**
+   * Returns the number of merged busy ranges.
+   */
+  int size() {
+    return starts.length;
+  }
+
+  /**
+   * Returns the earliest time at or after {@code from} when this person is free for
+   * {@code duration} minutes in a row. {@code duration} must be positive.
+   */
+  @Override
+  public long nextFree(long from, long duration) {
+    int first = firstEndingAfter(from);
+    if (first == starts.length || starts[first] >= from + duration) {
+      return from;
+    }
+
+    // The busy range at first is in the way, so the answer is the end of the first busy range at or
+    // after it that is followed by a long enough gap, or the end of the last one.
+    int gap = firstGapAtLeast(first, duration);
+    return gap < 0 ? ends[starts.length - 1] : ends[gap];
+  }
+
+  /**
+   * Returns the start of the first busy range that ends after {@code from}, or
+   * {@code Long.MAX_VALUE} if there is none. When this person is free at {@code from}, this is when
+   * they next become busy.
+   */
+  @Override
+  public long nextBusy(long from) {
+    int first = firstEndingAfter(from);
+    return first == starts.length ? Long.MAX_VALUE : starts[first];
+  }
+
+  /**
+   * Returns the index of the first busy range that ends after {@code time}.
+   */
+  private int firstEndingAfter(long time) {
+    int low = 0;
+    int high = ends.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] <= time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the index of the first gap at or after {@code from} that is at least {@code duration}
+   * long, or -1 if there is none.
+   */
+  private int firstGapAtLeast(int from, long duration) {
+    return firstGapAtLeast(1, 0, leaves, from, duration);
+  }
+
+  private int firstGapAtLeast(int node, int low, int high, int from, long duration) {
+    if (high <= from || maxGap[node] < duration) {
+      return -1;
+    }
+    if (high - low == 1) {
+      return low;
+    }
+
+    int middle = (low + high) >>> 1;
+    int left = firstGapAtLeast(2 * node, low, middle, from, duration);
+    return left >= 0 ? left : firstGapAtLeast(2 * node + 1, middle, high, from, duration);
+  }
+}
@@ -0,0 +1,69 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a client that has seen one version of a {@link CalendarService} needs to catch up with a
+ * later version: the events that were added or changed, by id, and the ids of the events that were
+ * removed. When the service no longer remembers the changes since the client's version, the
+ * changes are a reset instead, and list every event of the later version as added. Changes are
+ * considered read-only.
+ */
+public final class CalendarChanges {
+  private final long version;
+  private final boolean reset;
+  private final Map<Long, Event> added;
+  private final List<Long> removed;
+
+  CalendarChanges(long version, boolean reset, Map<Long, Event> added, List<Long> removed) {
+    this.version = version;
+    this.reset = reset;
+    this.added = Collections.unmodifiableMap(added);
+    this.removed = Collections.unmodifiableList(removed);
+  }
+
+  /**
+   * Returns the version that applying these changes catches up with.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns true if every event the client has must be dropped before applying these changes.
+   */
+  public boolean isReset() {
+    return reset;
+  }
+
+  /**
+   * Returns the events that are new or have changed, by id. An event with an id the client already
+   * has replaces it.
+   */
+  public Map<Long, Event> getAdded() {
+    return added;
+  }
+
+  /**
+   * Returns the ids of the events that no longer exist.
+   */
+  public List<Long> getRemoved() {
+    return removed;
+  }
+}
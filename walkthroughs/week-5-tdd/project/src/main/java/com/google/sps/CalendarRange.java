@@ -0,0 +1,136 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * Class representing a span of time that is not limited to a single day. Where {@code TimeRange}
+ * counts minutes from the start of the day, a {@code CalendarRange} counts minutes from the start of
+ * the epoch (1970-01-01T00:00), so one range can cover weeks or months.
+ */
+public final class CalendarRange {
+  public static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  /**
+   * A comparator for sorting ranges by their start time in ascending order.
+   */
+  public static final Comparator<CalendarRange> ORDER_BY_START = new Comparator<CalendarRange>() {
+    @Override
+    public int compare(CalendarRange a, CalendarRange b) {
+      return Long.compare(a.start, b.start);
+    }
+  };
+
+  private final long start;
+  private final long duration;
+
+  private CalendarRange(long start, long duration) {
+    this.start = start;
+    this.duration = duration;
+  }
+
+  /**
+   * Returns the start of the range in minutes since the epoch.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return duration;
+  }
+
+  /**
+   * Returns the end of the range. This ending value is the closing exclusive bound.
+   */
+  public long end() {
+    return start + duration;
+  }
+
+  /**
+   * Checks if two ranges overlap. This means that at least some part of one range falls within the
+   * bounds of another range.
+   */
+  public boolean overlaps(CalendarRange other) {
+    return this.contains(other.start) || other.contains(this.start);
+  }
+
+  /**
+   * Checks if {@code point} falls within this range. The end of the range is not included.
+   */
+  public boolean contains(long point) {
+    return duration > 0 && point >= start && point < start + duration;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof CalendarRange && equals(this, (CalendarRange) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(duration);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Range: [%d, %d)", start, start + duration);
+  }
+
+  private static boolean equals(CalendarRange a, CalendarRange b) {
+    return a.start == b.start && a.duration == b.duration;
+  }
+
+  /**
+   * Returns the number of minutes from the epoch to {@code minuteOfDay} on {@code epochDay}, where
+   * {@code epochDay} counts days since 1970-01-01 (see {@code LocalDate.toEpochDay()}).
+   */
+  public static long getEpochMinute(long epochDay, int minuteOfDay) {
+    return epochDay * MINUTES_PER_DAY + minuteOfDay;
+  }
+
+  /**
+   * Creates a {@code CalendarRange} from {@code start} (inclusive) to {@code end} (exclusive).
+   */
+  public static CalendarRange fromStartEnd(long start, long end) {
+    return new CalendarRange(start, end - start);
+  }
+
+  /**
+   * Create a {@code CalendarRange} starting at {@code start} with a duration equal to
+   * {@code duration}.
+   */
+  public static CalendarRange fromStartDuration(long start, long duration) {
+    return new CalendarRange(start, duration);
+  }
+
+  /**
+   * Returns the range covered by {@code range} when it happens on {@code epochDay}.
+   */
+  public static CalendarRange onDay(long epochDay, TimeRange range) {
+    return new CalendarRange(getEpochMinute(epochDay, range.start()), range.duration());
+  }
+
+  /**
+   * Returns the range covering all of {@code epochDay}.
+   */
+  public static CalendarRange wholeDay(long epochDay) {
+    return onDay(epochDay, TimeRange.WHOLE_DAY);
+  }
+}
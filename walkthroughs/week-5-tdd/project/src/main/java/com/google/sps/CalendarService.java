@@ -0,0 +1,287 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A calendar whose events can be added, removed and moved while queries keep running against it.
+ * Every update publishes a new immutable {@link CalendarSnapshot}; readers call {@link #snapshot()}
+ * and never block, and an update only costs O(log n) for each attendee of the event it changes.
+ * Updates are applied one at a time, and the latest of them are remembered so that clients can ask
+ * for only the {@link #changesSince} the version they last saw.
+ */
+public final class CalendarService {
+  private static final int DEFAULT_CHANGE_LOG_CAPACITY = 10000;
+
+  /**
+   * One event that was added, changed or removed, and the version of the calendar that did it. The
+   * event is null if it was removed.
+   */
+  private static final class Change {
+    final long version;
+    final long eventId;
+    final Event event;
+    final boolean added;
+
+    Change(long version, long eventId, Event event, boolean added) {
+      this.version = version;
+      this.eventId = eventId;
+      this.event = event;
+      this.added = added;
+    }
+  }
+
+  private volatile CalendarSnapshot snapshot = CalendarSnapshot.EMPTY;
+  private long nextEventId = 1;
+  private final int changeLogCapacity;
+  private final Deque<Change> changeLog = new ArrayDeque<>();
+  private long forgottenVersion = 0;
+
+  public CalendarService() {
+    this(Collections.<Event>emptyList());
+  }
+
+  /**
+   * Creates a new calendar holding {@code events}.
+   *
+   * @param events The initial events. Must be non-null.
+   */
+  public CalendarService(Collection<Event> events) {
+    this(events, DEFAULT_CHANGE_LOG_CAPACITY);
+  }
+
+  /**
+   * Creates a new calendar holding {@code events} that remembers the last
+   * {@code changeLogCapacity} changes to its events. The events are loaded all at once, as the
+   * first version of the calendar, and are not remembered as changes; a client asking for the
+   * changes since before them gets a reset.
+   *
+   * @param events The initial events. Must be non-null.
+   */
+  public CalendarService(Collection<Event> events, int changeLogCapacity) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    if (changeLogCapacity < 0) {
+      throw new IllegalArgumentException("changeLogCapacity cannot be negative");
+    }
+
+    for (Event event : events) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+      checkDuration(event.getWhen());
+    }
+
+    this.changeLogCapacity = changeLogCapacity;
+    List<Event> initialEvents = new ArrayList<>(events);
+    snapshot = CalendarSnapshot.of(initialEvents, nextEventId);
+    nextEventId += initialEvents.size();
+    forgottenVersion = snapshot.getVersion();
+  }
+
+  /**
+   * Returns the latest version of the calendar.
+   */
+  public CalendarSnapshot snapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Adds {@code event} to the calendar and returns the id it can later be changed with.
+   */
+  public synchronized long addEvent(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+    checkDuration(event.getWhen());
+
+    long eventId = nextEventId++;
+    snapshot = snapshot.withEvent(eventId, event);
+    logChange(new Change(snapshot.getVersion(), eventId, event, true));
+    return eventId;
+  }
+
+  /**
+   * Removes the event with {@code eventId}. Returns false if there is no such event.
+   */
+  public synchronized boolean removeEvent(long eventId) {
+    CalendarSnapshot current = snapshot;
+    snapshot = current.withoutEvent(eventId);
+    if (snapshot == current) {
+      return false;
+    }
+    logChange(new Change(snapshot.getVersion(), eventId, null, false));
+    return true;
+  }
+
+  /**
+   * Removes the events with {@code removedIds} and adds {@code addedEvents}, and returns the ids of
+   * the added events in the same order. Readers see either none or all of the changes, and the
+   * whole batch only publishes one new snapshot. Ids with no event are ignored.
+   */
+  public synchronized List<Long> update(Collection<Long> removedIds, List<Event> addedEvents) {
+    if (removedIds == null || addedEvents == null) {
+      throw new IllegalArgumentException("changes cannot be null. Use empty array instead.");
+    }
+
+    for (Event event : addedEvents) {
+      if (event == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+      checkDuration(event.getWhen());
+    }
+
+    CalendarSnapshot next = snapshot;
+    for (long eventId : removedIds) {
+      CalendarSnapshot previous = next;
+      next = next.withoutEvent(eventId);
+      if (next != previous) {
+        logChange(new Change(next.getVersion(), eventId, null, false));
+      }
+    }
+
+    List<Long> addedIds = new ArrayList<>(addedEvents.size());
+    for (Event event : addedEvents) {
+      long eventId = nextEventId++;
+      next = next.withEvent(eventId, event);
+      logChange(new Change(next.getVersion(), eventId, event, true));
+      addedIds.add(eventId);
+    }
+    snapshot = next;
+    return addedIds;
+  }
+
+  /**
+   * Registers a standing group of {@code members} as {@code name}, replacing any group already
+   * registered under that name. From then on every snapshot keeps the busy times of the whole group
+   * merged, for {@link FindMeetingQuery#queryGroup}.
+   */
+  public synchronized void registerGroup(String name, Collection<String> members) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (members == null) {
+      throw new IllegalArgumentException("members cannot be null. Use empty array instead.");
+    }
+
+    for (String member : members) {
+      if (member == null) {
+        throw new IllegalArgumentException("members cannot contain null");
+      }
+    }
+
+    snapshot = snapshot.withGroup(name, members);
+  }
+
+  /**
+   * Stops keeping the standing group registered as {@code name}. Returns false if there is no such
+   * group.
+   */
+  public synchronized boolean unregisterGroup(String name) {
+    CalendarSnapshot current = snapshot;
+    snapshot = current.withoutGroup(name);
+    return snapshot != current;
+  }
+
+  /**
+   * Moves the event with {@code eventId} to {@code when}, keeping its id, title and attendees.
+   * Returns false if there is no such event.
+   */
+  public synchronized boolean moveEvent(long eventId, TimeRange when) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+    checkDuration(when);
+
+    Event event = snapshot.getEvent(eventId);
+    if (event == null) {
+      return false;
+    }
+
+    // Both steps are built on a local snapshot so that readers only ever see the finished move.
+    Event moved = new Event(event.getTitle(), when, event.getAttendees());
+    snapshot = snapshot.withoutEvent(eventId).withEvent(eventId, moved);
+    logChange(new Change(snapshot.getVersion(), eventId, moved, false));
+    return true;
+  }
+
+  /**
+   * Returns what changed about the events between {@code version} and the latest version. If the
+   * changes since {@code version} are no longer remembered, or {@code version} is not one this
+   * calendar has had, the changes are a reset holding every event.
+   */
+  public synchronized CalendarChanges changesSince(long version) {
+    CalendarSnapshot current = snapshot;
+    if (version < forgottenVersion || version > current.getVersion()) {
+      return new CalendarChanges(current.getVersion(), true, current.getEventsById(),
+          Collections.<Long>emptyList());
+    }
+
+    // Only the last change to each event counts. An event that was added and removed again since
+    // the client's version is left out, since the client never saw it.
+    Map<Long, Change> lastChanges = new HashMap<>();
+    Map<Long, Change> firstChanges = new HashMap<>();
+    for (Iterator<Change> changes = changeLog.descendingIterator(); changes.hasNext(); ) {
+      Change change = changes.next();
+      if (change.version <= version) {
+        break;
+      }
+      lastChanges.putIfAbsent(change.eventId, change);
+      firstChanges.put(change.eventId, change);
+    }
+
+    Map<Long, Event> added = new TreeMap<>();
+    List<Long> removed = new ArrayList<>();
+    for (Change change : lastChanges.values()) {
+      if (change.event != null) {
+        added.put(change.eventId, change.event);
+      } else if (!firstChanges.get(change.eventId).added) {
+        removed.add(change.eventId);
+      }
+    }
+    Collections.sort(removed);
+    return new CalendarChanges(current.getVersion(), false, added, removed);
+  }
+
+  /**
+   * Refuses times that end before they start. Nothing can be busy for less than no time, and the
+   * binary encoding in {@link WireFormat} cannot hold them.
+   */
+  private static void checkDuration(TimeRange when) {
+    if (when.duration() < 0) {
+      throw new IllegalArgumentException("duration cannot be negative");
+    }
+  }
+
+  private void logChange(Change change) {
+    changeLog.addLast(change);
+    while (changeLog.size() > changeLogCapacity) {
+      forgottenVersion = changeLog.removeFirst().version;
+    }
+  }
+}
@@ -0,0 +1,301 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One consistent version of a {@link CalendarService}'s events. Snapshots never change, so a query
+ * can read one without taking a lock and will not see half of an update. Making the next version
+ * only copies the O(log n) tree nodes of the attendees an update touches. The busy times of an
+ * attendee are listed once, by the first query that reads them, and every later query of a
+ * snapshot in which they have not changed reuses that list.
+ */
+public final class CalendarSnapshot implements AttendeeCalendar {
+  /**
+   * Key of one busy time in an attendee's tree. The event id keeps two events at the same time
+   * apart.
+   */
+  private static final class BusyTime {
+    final TimeRange when;
+    final long eventId;
+
+    BusyTime(TimeRange when, long eventId) {
+      this.when = when;
+      this.eventId = eventId;
+    }
+  }
+
+  /**
+   * The busy times of one attendee, and the version of the calendar in which they last changed.
+   */
+  private static final class AttendeeTimes {
+    final PersistentTreeMap<BusyTime, TimeRange> times;
+    final long version;
+
+    // The times in order, listed by the first query that asks for them. The tree never changes, so
+    // every later query can share the list.
+    private volatile List<TimeRange> sortedTimes;
+
+    AttendeeTimes(PersistentTreeMap<BusyTime, TimeRange> times, long version) {
+      this.times = times;
+      this.version = version;
+    }
+
+    List<TimeRange> sortedTimes() {
+      List<TimeRange> sorted = sortedTimes;
+      if (sorted == null) {
+        // Two queries may both list the times, but they list the same ones.
+        sorted = Collections.unmodifiableList(times.values());
+        sortedTimes = sorted;
+      }
+      return sorted;
+    }
+  }
+
+  private static final Comparator<BusyTime> BUSY_TIME_ORDER = new Comparator<BusyTime>() {
+    @Override
+    public int compare(BusyTime a, BusyTime b) {
+      int compare = Integer.compare(a.when.start(), b.when.start());
+      if (compare == 0) {
+        compare = Integer.compare(a.when.end(), b.when.end());
+      }
+      return compare != 0 ? compare : Long.compare(a.eventId, b.eventId);
+    }
+  };
+
+  static final CalendarSnapshot EMPTY = new CalendarSnapshot(0,
+      new PersistentTreeMap<Long, Event>(Comparator.<Long>naturalOrder()),
+      new PersistentTreeMap<String, AttendeeTimes>(Comparator.<String>naturalOrder()),
+      new PersistentTreeMap<String, StandingGroup>(Comparator.<String>naturalOrder()));
+
+  /**
+   * Returns the first version of a calendar that holds {@code events}, under the ids from
+   * {@code firstEventId} up in the same order. Each tree is built once from sorted keys, which is
+   * cheaper than adding the events one version at a time.
+   */
+  static CalendarSnapshot of(List<Event> events, long firstEventId) {
+    if (events.isEmpty()) {
+      return EMPTY;
+    }
+
+    long version = EMPTY.version + 1;
+    List<Long> eventIds = new ArrayList<>(events.size());
+    Map<String, List<BusyTime>> attendeeTimes = new HashMap<>();
+    for (int i = 0; i < events.size(); i++) {
+      Event event = events.get(i);
+      long eventId = firstEventId + i;
+      eventIds.add(eventId);
+      for (String attendee : event.getAttendees()) {
+        attendeeTimes.computeIfAbsent(attendee, key -> new ArrayList<>())
+            .add(new BusyTime(event.getWhen(), eventId));
+      }
+    }
+
+    List<String> attendees = new ArrayList<>(attendeeTimes.keySet());
+    Collections.sort(attendees);
+    List<AttendeeTimes> times = new ArrayList<>(attendees.size());
+    for (String attendee : attendees) {
+      List<BusyTime> busy = attendeeTimes.get(attendee);
+      Collections.sort(busy, BUSY_TIME_ORDER);
+      List<TimeRange> whens = new ArrayList<>(busy.size());
+      for (BusyTime busyTime : busy) {
+        whens.add(busyTime.when);
+      }
+      times.add(new AttendeeTimes(
+          PersistentTreeMap.fromSorted(BUSY_TIME_ORDER, busy, whens), version));
+    }
+
+    return new CalendarSnapshot(version,
+        PersistentTreeMap.fromSorted(Comparator.<Long>naturalOrder(), eventIds, events),
+        PersistentTreeMap.fromSorted(Comparator.<String>naturalOrder(), attendees, times),
+        EMPTY.groups);
+  }
+
+  private final long version;
+  private final PersistentTreeMap<Long, Event> events;
+  private final PersistentTreeMap<String, AttendeeTimes> busyTimes;
+  private final PersistentTreeMap<String, StandingGroup> groups;
+
+  private CalendarSnapshot(long version, PersistentTreeMap<Long, Event> events,
+      PersistentTreeMap<String, AttendeeTimes> busyTimes,
+      PersistentTreeMap<String, StandingGroup> groups) {
+    this.version = version;
+    this.events = events;
+    this.busyTimes = busyTimes;
+    this.groups = groups;
+  }
+
+  /**
+   * Returns the version of the calendar. Every update makes a snapshot with a higher version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the event with the given id, or null if there is none.
+   */
+  public Event getEvent(long eventId) {
+    return events.get(eventId);
+  }
+
+  /**
+   * Returns a read-only collection of every event, in the order they were added.
+   */
+  public Collection<Event> getEvents() {
+    return Collections.unmodifiableList(events.values());
+  }
+
+  /**
+   * Returns a read-only map from the id of every event to the event, in the order they were added.
+   */
+  public Map<Long, Event> getEventsById() {
+    Map<Long, Event> eventsById = new LinkedHashMap<>();
+    events.forEach(eventsById::put);
+    return Collections.unmodifiableMap(eventsById);
+  }
+
+  /**
+   * Returns the version of the calendar in which the busy times of {@code attendee} last changed,
+   * or 0 if they are not busy at all. Two snapshots return the same version for an attendee only if
+   * that attendee has the same busy times in both.
+   */
+  public long getVersion(String attendee) {
+    AttendeeTimes times = busyTimes.get(attendee);
+    return times == null ? 0 : times.version;
+  }
+
+  @Override
+  public List<TimeRange> getBusyTimes(String attendee) {
+    AttendeeTimes times = busyTimes.get(attendee);
+    return times == null ? Collections.<TimeRange>emptyList() : times.sortedTimes();
+  }
+
+  /**
+   * Returns the standing group registered as {@code name}, or null if there is none.
+   */
+  public StandingGroup getGroup(String name) {
+    return groups.get(name);
+  }
+
+  /**
+   * Returns the next version of this snapshot, with {@code event} added under {@code eventId}.
+   */
+  CalendarSnapshot withEvent(long eventId, Event event) {
+    PersistentTreeMap<String, AttendeeTimes> newBusyTimes = busyTimes;
+    BusyTime busyTime = new BusyTime(event.getWhen(), eventId);
+    for (String attendee : event.getAttendees()) {
+      AttendeeTimes times = newBusyTimes.get(attendee);
+      PersistentTreeMap<BusyTime, TimeRange> tree =
+          times == null ? new PersistentTreeMap<>(BUSY_TIME_ORDER) : times.times;
+      newBusyTimes = newBusyTimes.put(
+          attendee, new AttendeeTimes(tree.put(busyTime, event.getWhen()), version + 1));
+    }
+    return new CalendarSnapshot(version + 1, events.put(eventId, event), newBusyTimes,
+        withGroupsChanged(event, 1));
+  }
+
+  /**
+   * Returns the next version of this snapshot, without the event with {@code eventId}. Returns this
+   * snapshot if there is no such event.
+   */
+  CalendarSnapshot withoutEvent(long eventId) {
+    Event event = events.get(eventId);
+    if (event == null) {
+      return this;
+    }
+
+    PersistentTreeMap<String, AttendeeTimes> newBusyTimes = busyTimes;
+    BusyTime busyTime = new BusyTime(event.getWhen(), eventId);
+    for (String attendee : event.getAttendees()) {
+      PersistentTreeMap<BusyTime, TimeRange> tree =
+          newBusyTimes.get(attendee).times.remove(busyTime);
+      newBusyTimes = tree.isEmpty()
+          ? newBusyTimes.remove(attendee)
+          : newBusyTimes.put(attendee, new AttendeeTimes(tree, version + 1));
+    }
+    return new CalendarSnapshot(version + 1, events.remove(eventId), newBusyTimes,
+        withGroupsChanged(event, -1));
+  }
+
+  /**
+   * Returns the next version of this snapshot, with a standing group of {@code members} registered
+   * as {@code name} in place of any group already registered under that name.
+   */
+  CalendarSnapshot withGroup(String name, Collection<String> members) {
+    // Members share events, so collect each event once before counting it.
+    List<TimeRange> memberEvents = new ArrayList<>();
+    Set<Long> seen = new HashSet<>();
+    for (String member : members) {
+      AttendeeTimes times = busyTimes.get(member);
+      if (times != null) {
+        times.times.forEach((busyTime, when) -> {
+          if (seen.add(busyTime.eventId)) {
+            memberEvents.add(when);
+          }
+        });
+      }
+    }
+
+    StandingGroup group = StandingGroup.of(members);
+    for (TimeRange when : memberEvents) {
+      group = group.with(when, 1);
+    }
+    return new CalendarSnapshot(version + 1, events, busyTimes, groups.put(name, group));
+  }
+
+  /**
+   * Returns the next version of this snapshot, without the standing group registered as
+   * {@code name}. Returns this snapshot if there is no such group.
+   */
+  CalendarSnapshot withoutGroup(String name) {
+    PersistentTreeMap<String, StandingGroup> newGroups = groups.remove(name);
+    return newGroups == groups
+        ? this
+        : new CalendarSnapshot(version + 1, events, busyTimes, newGroups);
+  }
+
+  /**
+   * Returns the standing groups, with {@code event} counted {@code count} more times in every group
+   * that one of its attendees is in.
+   */
+  private PersistentTreeMap<String, StandingGroup> withGroupsChanged(Event event, int count) {
+    // There are only ever a few groups, so looking at each of them is cheaper than an index.
+    List<String> names = new ArrayList<>();
+    List<StandingGroup> changed = new ArrayList<>();
+    groups.forEach((name, group) -> {
+      if (group.includesAny(event.getAttendees())) {
+        names.add(name);
+        changed.add(group.with(event.getWhen(), count));
+      }
+    });
+
+    PersistentTreeMap<String, StandingGroup> newGroups = groups;
+    for (int i = 0; i < names.size(); i++) {
+      newGroups = newGroups.put(names.get(i), changed.get(i));
+    }
+    return newGroups;
+  }
+}
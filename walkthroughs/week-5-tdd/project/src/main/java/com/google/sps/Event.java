@@ -33,7 +33,8 @@ public final class Event {
    *
    * @param title The human-readable name for the event. Must be non-null.
    * @param when The time when the event takes place. Must be non-null.
-   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null, and so must
+   *     each of their names.
    */
   public Event(String title, TimeRange when, Collection<String> attendees) {
     if (title == null) {
@@ -51,6 +52,9 @@ public final class Event {
     this.title = title;
     this.when = when;
     this.attendees.addAll(attendees);
+    if (this.attendees.contains(null)) {
+      throw new IllegalArgumentException("attendees cannot contain null");
+    }
   }
 
   /**
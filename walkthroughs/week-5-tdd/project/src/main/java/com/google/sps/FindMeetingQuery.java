@@ -16,18 +16,161 @@ package com.google.sps;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
 import java.util.stream.*;
 import java.util.stream.Collectors;
 
 public final class FindMeetingQuery {
+  private static final BusyTimeMerger MERGER = new BusyTimeMerger();
+
+  private final QueryMetrics metrics;
+
+  public FindMeetingQuery() {
+    this(null);
+  }
+
+  /**
+   * Creates a query that records the phases of {@link #query(Collection, MeetingRequest)} and
+   * {@link #query(AttendeeCalendar, MeetingRequest)} into {@code metrics} while they are enabled.
+   * With null metrics nothing is recorded.
+   */
+  public FindMeetingQuery(QueryMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    if(metrics != null && metrics.isEnabled()){
+        return queryMeasured(request,
+            (attendees, duration) -> findAvailableTimesMeasured(attendees, events, duration));
+    }
+    return queryWith(request,
+        (attendees, duration) -> findAvailableTimes(getRelevantEvents(attendees, events), duration));
+  }
+
+  /**
+   * Same as {@link #query(Collection, MeetingRequest)}, but reads busy times from a prebuilt
+   * {@code calendar}, such as an {@link AttendeeIndex}, so that only the intervals of the requested
+   * attendees are touched. The intervals are swept as primitive arrays by {@link IntervalSweep}, so
+   * no {@code TimeRange} is allocated other than the ones returned. Requests with at least
+   * {@link BusyTimeMerger#MIN_ATTENDEES} attendees merge their lists, which the calendar keeps
+   * sorted, with a {@link BusyTimeMerger} instead of sorting every interval again.
+   */
+  public Collection<TimeRange> query(AttendeeCalendar calendar, MeetingRequest request) {
+    if (metrics != null && metrics.isEnabled()) {
+      return queryMeasured(request, (attendees, duration) -> {
+        long start = System.nanoTime();
+        if (attendees.size() >= BusyTimeMerger.MIN_ATTENDEES) {
+          List<List<TimeRange>> busyTimes = busyTimesOf(calendar, attendees);
+          long collected = System.nanoTime();
+          Collection<TimeRange> availableTimes = MERGER.findAvailableTimes(busyTimes, duration);
+          metrics.getFilterNanos().record(collected - start);
+          metrics.getSweepNanos().record(System.nanoTime() - collected);
+          int size = 0;
+          for (List<TimeRange> times : busyTimes) {
+            size += times.size();
+          }
+          metrics.getIntervalsKept().record(size);
+          return availableTimes;
+        }
+
+        IntervalSweep sweep = collectBusyTimes(calendar, attendees);
+        long collected = System.nanoTime();
+        Collection<TimeRange> availableTimes = sweep.findAvailableTimes(duration);
+        metrics.getFilterNanos().record(collected - start);
+        metrics.getSweepNanos().record(System.nanoTime() - collected);
+        metrics.getIntervalsKept().record(sweep.size());
+        return availableTimes;
+      });
+    }
+    return queryWith(request, (attendees, duration) -> {
+      if (attendees.size() >= BusyTimeMerger.MIN_ATTENDEES) {
+        return MERGER.findAvailableTimes(busyTimesOf(calendar, attendees), duration);
+      }
+      return collectBusyTimes(calendar, attendees).findAvailableTimes(duration);
+    });
+  }
+
+  /**
+   * Returns the busy times of each of {@code attendees}, as {@code calendar} keeps them.
+   */
+  static List<List<TimeRange>> busyTimesOf(
+      AttendeeCalendar calendar, Collection<String> attendees) {
+    List<List<TimeRange>> busyTimes = new ArrayList<>(attendees.size());
+    for (String person : attendees) {
+      busyTimes.add(calendar.getBusyTimes(person));
+    }
+    return busyTimes;
+  }
+
+  private static IntervalSweep collectBusyTimes(
+      AttendeeCalendar calendar, Collection<String> attendees) {
+    List<List<TimeRange>> busyTimes = busyTimesOf(calendar, attendees);
+    int capacity = 0;
+    for (List<TimeRange> times : busyTimes) {
+      capacity += times.size();
+    }
+
+    IntervalSweep sweep = new IntervalSweep(capacity);
+    for (List<TimeRange> times : busyTimes) {
+      sweep.addAll(times);
+    }
+    return sweep;
+  }
+
+  /**
+   * Returns the times when every member of the standing group registered as {@code group} and the
+   * attendees of {@code request} can meet, honouring its optional attendees the same way as
+   * {@link #query(AttendeeCalendar, MeetingRequest)}. The busy times the snapshot keeps merged for
+   * the group are already sorted, as are those of the people who are not in it, so the lists are
+   * merged with a {@link BusyTimeMerger} rather than sorted again. A group on its own only takes one
+   * walk over its list.
+   */
+  public Collection<TimeRange> queryGroup(
+      CalendarSnapshot snapshot, String group, MeetingRequest request) {
+    StandingGroup standingGroup = snapshot.getGroup(group);
+    if (standingGroup == null) {
+      throw new IllegalArgumentException("no standing group " + group);
+    }
+
+    Collection<String> attendees = new HashSet<>(standingGroup.getMembers());
+    attendees.addAll(request.getAttendees());
+    MeetingRequest groupRequest = new MeetingRequest(attendees, request.getDuration());
+    for (String person : request.getOptionalAttendees()) {
+      groupRequest.addOptionalAttendee(person);
+    }
+
+    // The members are mandatory, so every attempt includes the whole group.
+    List<TimeRange> groupBusyTimes = standingGroup.getBusyTimes();
+    return queryWith(groupRequest, (people, duration) -> {
+      List<List<TimeRange>> busyTimes = new ArrayList<>();
+      busyTimes.add(groupBusyTimes);
+      for (String person : people) {
+        if (!standingGroup.getMembers().contains(person)) {
+          busyTimes.add(snapshot.getBusyTimes(person));
+        }
+      }
+      return MERGER.findAvailableTimes(busyTimes, duration);
+    });
+  }
+
+  /**
+   * Answers {@code request} the same way as {@link #query(Collection, MeetingRequest)}, but lets the
+   * caller decide how the free times of a group of attendees are found. Other scheduling engines use
+   * this so that they all handle empty requests, bad durations and optional attendees alike.
+   */
+  static Collection<TimeRange> queryWith(MeetingRequest request,
+      BiFunction<Collection<String>, Long, Collection<TimeRange>> availableTimesOf) {
     Collection<String> mandatory = request.getAttendees();
     Collection<String> optional = request.getOptionalAttendees();
-    Collection<String> attendees = mandatory; 
+    //Copy the mandatory attendees so that adding the optional ones does not change the request
+    Collection<String> attendees = new HashSet<String>(mandatory);
     long duration = request.getDuration();
 
     boolean optionalAttendeesInRequest = true;
@@ -47,57 +190,318 @@ public final class FindMeetingQuery {
         return Arrays.asList();
     } 
 
-    //only are concerned with events that attendees are going to 
+    Collection<TimeRange> availTimes = availableTimesOf.apply(attendees, duration);
+
+    if(optionalAttendeesInRequest && availTimes.isEmpty()){
+        //If attempt to include optional attendees resulted in no time slots, try with just mandatory attendees
+        return queryWith(new MeetingRequest(mandatory, duration), availableTimesOf);
+    } else {
+        return availTimes;
+    }
+  }
+
+  /**
+   * Same as {@link #queryMaximizingOptional(AttendeeCalendar, MeetingRequest)}, but scans
+   * {@code events} for the busy times of the attendees.
+   */
+  public List<MeetingSlot> queryMaximizingOptional(
+      Collection<Event> events, MeetingRequest request) {
+    return queryMaximizingOptional(new AttendeeIndex(events), request);
+  }
+
+  /**
+   * Returns the times when every mandatory attendee is free and as many optional attendees as
+   * possible can come, each annotated with the optional attendees who can come. Unlike
+   * {@link #query(AttendeeCalendar, MeetingRequest)}, this does not give up on every optional attendee
+   * when they cannot all come, and it gets there in one sweep instead of a second query.
+   *
+   * <p>A slot covers every meeting that can start within it. Two slots may overlap when different
+   * optional attendees, but the same number of them, can come to each.
+   */
+  public List<MeetingSlot> queryMaximizingOptional(
+      AttendeeCalendar calendar, MeetingRequest request) {
+    long duration = request.getDuration();
+    List<MeetingSlot> slots = new ArrayList<MeetingSlot>();
+
+    //Case in which the requested meeting has a duration that is too long/short
+    if(duration > TimeRange.WHOLE_DAY.duration() || duration < 0){
+        return slots;
+    }
+
+    AttendanceSweep sweep = new AttendanceSweep(duration);
+    for(String person : request.getAttendees()){
+        sweep.addRequired(calendar.getBusyTimes(person));
+    }
+    for(String person : request.getOptionalAttendees()){
+        sweep.addAttendee(person, calendar.getBusyTimes(person));
+    }
+
+    //First find the most optional attendees that can come, then collect the slots that achieve it
+    int[] mostAvailable = {0};
+    sweep.sweep((firstStart, endStart, availableCount) ->
+        mostAvailable[0] = Math.max(mostAvailable[0], availableCount));
+
+    sweep.sweep((firstStart, endStart, availableCount) -> {
+        if(availableCount == mostAvailable[0]){
+            slots.add(new MeetingSlot(sweep.toTimeRange(firstStart, endStart),
+                availableAttendees(sweep, availableCount)));
+        }
+    });
+    return slots;
+  }
+
+  /**
+   * Same as {@link #queryQuorum(AttendeeCalendar, Collection, int, long)}, but scans {@code events}
+   * for the busy times of the attendees.
+   */
+  public List<MeetingSlot> queryQuorum(
+      Collection<Event> events, Collection<String> attendees, int quorum, long duration) {
+    return queryQuorum(new AttendeeIndex(events), attendees, quorum, duration);
+  }
+
+  /**
+   * Returns the times when at least {@code quorum} of {@code attendees} are free for a meeting of
+   * {@code duration} minutes, each annotated with the attendees who can come. All busy times are
+   * swept once with a running count of free people, so the cost is O(n log n) in the number of
+   * busy times instead of growing with the number of subsets of attendees.
+   *
+   * <p>A slot covers every meeting that can start within it, and a new slot begins whenever the
+   * set of people who can come changes, so neighbouring slots may overlap.
+   */
+  public List<MeetingSlot> queryQuorum(
+      AttendeeCalendar calendar, Collection<String> attendees, int quorum, long duration) {
+    if (quorum < 0) {
+      throw new IllegalArgumentException("quorum cannot be negative");
+    }
+
+    List<MeetingSlot> slots = new ArrayList<MeetingSlot>();
+
+    //Case in which the requested meeting has a duration that is too long/short
+    if(duration > TimeRange.WHOLE_DAY.duration() || duration < 0){
+        return slots;
+    }
+
+    AttendanceSweep sweep = new AttendanceSweep(duration);
+    for(String person : new LinkedHashSet<String>(attendees)){
+        sweep.addAttendee(person, calendar.getBusyTimes(person));
+    }
+
+    List<int[]> runs = new ArrayList<int[]>();
+    List<List<String>> runAttendees = new ArrayList<List<String>>();
+    sweep.sweep((firstStart, endStart, availableCount) -> {
+        if(availableCount < quorum){
+            return;
+        }
+
+        //A run also ends where someone who is already busy gets busier, so join it to the run
+        //before it when the same people can come to both
+        List<String> available = availableAttendees(sweep, availableCount);
+        int last = runs.size() - 1;
+        if(last >= 0 && runs.get(last)[1] == firstStart && runAttendees.get(last).equals(available)){
+            runs.get(last)[1] = endStart;
+        } else {
+            runs.add(new int[] {firstStart, endStart});
+            runAttendees.add(available);
+        }
+    });
+
+    for(int i = 0; i < runs.size(); i++){
+        slots.add(new MeetingSlot(
+            sweep.toTimeRange(runs.get(i)[0], runs.get(i)[1]), runAttendees.get(i)));
+    }
+    return slots;
+  }
+
+  /**
+   * Same as {@link #queryTopRanked(AttendeeCalendar, MeetingRequest, SlotScorer, int)}, but scans
+   * {@code events} for the busy times of the attendees.
+   */
+  public List<TimeRange> queryTopRanked(
+      Collection<Event> events, MeetingRequest request, SlotScorer scorer, int limit) {
+    return queryTopRanked(new AttendeeIndex(events), request, scorer, limit);
+  }
+
+  /**
+   * Returns at most {@code limit} concrete meeting times, each as long as the meeting, that score
+   * best according to {@code scorer}, best first. The meeting times are taken from the times
+   * {@link #query(AttendeeCalendar, MeetingRequest)} returns. Gaps are visited from the highest
+   * upper bound down, and the search stops as soon as no gap left can beat the worst time kept.
+   */
+  public List<TimeRange> queryTopRanked(
+      AttendeeCalendar calendar, MeetingRequest request, SlotScorer scorer, int limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("limit cannot be negative");
+    }
+
+    if (limit == 0) {
+      return new ArrayList<>();
+    }
+
+    long duration = request.getDuration();
+    List<RankedStart> gaps = new ArrayList<>();
+    long candidates = 0;
+    for (TimeRange gap : query(calendar, request)) {
+      gaps.add(new RankedStart(gap.start(), scorer.upperBound(gap, duration), gap));
+      candidates += Math.max(0, lastStartIn(gap, duration) - gap.start() + 1);
+    }
+    Collections.sort(gaps, RankedStart.BEST_FIRST);
+
+    // The best starts found so far, with the worst of them at the head so it can be replaced. It
+    // never holds more than there are starts to choose from, however high the limit.
+    PriorityQueue<RankedStart> best = new PriorityQueue<>(
+        (int) Math.max(1, Math.min(limit, candidates)), RankedStart.BEST_FIRST.reversed());
+    for (RankedStart gap : gaps) {
+      // Gaps come in order of their bound, so if this one cannot beat the worst kept start no
+      // later one can either.
+      if (best.size() == limit && !gap.isBetterThan(best.peek())) {
+        break;
+      }
+
+      int lastStart = lastStartIn(gap.gap, duration);
+      for (int start = gap.start; start <= lastStart; start++) {
+        double score = scorer.score(gap.gap, start, duration);
+        if (best.size() < limit) {
+          best.add(new RankedStart(start, score, gap.gap));
+        } else if (RankedStart.isBetter(score, start, best.peek())) {
+          best.poll();
+          best.add(new RankedStart(start, score, gap.gap));
+        }
+      }
+    }
+
+    List<RankedStart> sorted = new ArrayList<>(best);
+    Collections.sort(sorted, RankedStart.BEST_FIRST);
+    List<TimeRange> ranked = new ArrayList<>(sorted.size());
+    for (RankedStart start : sorted) {
+      ranked.add(TimeRange.fromStartDuration(start.start, (int) duration));
+    }
+    return ranked;
+  }
+
+  /**
+   * Returns the last minute of {@code gap} that a meeting of {@code duration} minutes can start at.
+   * A meeting with no duration still needs a minute of the gap to start in.
+   */
+  private static int lastStartIn(TimeRange gap, long duration) {
+    return gap.end() - (int) Math.max(duration, 1);
+  }
+
+  /**
+   * A meeting start and its score, or the start of a free gap and the upper bound of its score.
+   */
+  private static final class RankedStart {
+    static final Comparator<RankedStart> BEST_FIRST = new Comparator<RankedStart>() {
+      @Override
+      public int compare(RankedStart a, RankedStart b) {
+        int compare = Double.compare(b.score, a.score);
+        return compare != 0 ? compare : Integer.compare(a.start, b.start);
+      }
+    };
+
+    final int start;
+    final double score;
+    final TimeRange gap;
+
+    RankedStart(int start, double score, TimeRange gap) {
+      this.start = start;
+      this.score = score;
+      this.gap = gap;
+    }
+
+    boolean isBetterThan(RankedStart other) {
+      return isBetter(score, start, other);
+    }
+
+    static boolean isBetter(double score, int start, RankedStart other) {
+      return score > other.score || (score == other.score && start < other.start);
+    }
+  }
+
+  //Answers the request like queryWith, also timing the whole query and noting any retry
+  private Collection<TimeRange> queryMeasured(MeetingRequest request,
+      BiFunction<Collection<String>, Long, Collection<TimeRange>> availableTimesOf){
+    int[] attempts = new int[1];
+    long start = System.nanoTime();
+    Collection<TimeRange> availTimes = queryWith(request, (attendees, duration) -> {
+        attempts[0]++;
+        return availableTimesOf.apply(attendees, duration);
+    });
+    metrics.recordQuery(System.nanoTime() - start, attempts[0] > 1);
+    return availTimes;
+  }
+
+  //Same as findAvailableTimes(getRelevantEvents(attendees, events), duration), timing each phase
+  private Collection<TimeRange> findAvailableTimesMeasured(
+      Collection<String> attendees, Collection<Event> events, long duration){
+    long start = System.nanoTime();
     Collection<TimeRange> timeRangesSet = getRelevantEvents(attendees, events);
+    long filtered = System.nanoTime();
+    List<TimeRange> timeRanges = sortByStart(timeRangesSet);
+    long sorted = System.nanoTime();
+    Collection<TimeRange> availTimes = findAvailableTimesInSorted(timeRanges, duration);
+
+    metrics.getFilterNanos().record(filtered - start);
+    metrics.getSortNanos().record(sorted - filtered);
+    metrics.getSweepNanos().record(System.nanoTime() - sorted);
+    metrics.getEventsScanned().record(events.size());
+    metrics.getIntervalsKept().record(timeRangesSet.size());
+    return availTimes;
+  }
+
+  //Returns the counted people who can come during the run the sweep is reporting
+  private static List<String> availableAttendees(AttendanceSweep sweep, int availableCount){
+    List<String> available = new ArrayList<String>(availableCount);
+    for(int i = 0; i < sweep.attendeeCount(); i++){
+        if(sweep.isAvailable(i)){
+            available.add(sweep.getAttendee(i));
+        }
+    }
+    return available;
+  }
+
+  //Returns the free time ranges between the busy time ranges that are at least duration long
+  private Collection<TimeRange> findAvailableTimes(Collection<TimeRange> timeRangesSet, long duration){
 
     //Case in which no events on calendar so no conflicts
     if(timeRangesSet.isEmpty()){
         return Arrays.asList(TimeRange.WHOLE_DAY);
     }
 
+    return findAvailableTimesInSorted(sortByStart(timeRangesSet), duration);
+  }
+
+  //Returns the busy time ranges and the dummy events around them, sorted by start
+  private List<TimeRange> sortByStart(Collection<TimeRange> timeRangesSet){
     List<TimeRange> timeRanges = new ArrayList<TimeRange>(timeRangesSet);
     addDummyEvents(timeRanges);
     Collections.sort(timeRanges, TimeRange.ORDER_BY_START);
+    return timeRanges;
+  }
 
-    Collection<TimeRange> availTimes = new ArrayList<TimeRange>(); //Time ranges that are available for the meeting request
-    
-    TimeRange lastTimeRange = timeRanges.get(0); //Last time range that has been accounted for from timeRanges
-    TimeRange nextTimeRange; //Next time range that needs to be accounted for
-    int timeRangesCtr = 1; 
-
-    //timeRangesCtr: Index of current position in array list "timeRanges", 
-    //start at 1 since timeRange at index 0 is dummy and 
-    //has already been accounted for
-    int startOfAvail = lastTimeRange.end();
-    int endOfAvail; 
-
-    while(startOfAvail < TimeRange.END_OF_DAY && timeRangesCtr < timeRanges.size()){ 
-        nextTimeRange = timeRanges.get(timeRangesCtr);
-        if (lastTimeRange.contains(nextTimeRange)){
-            lastTimeRange = nextTimeRange;
-            timeRangesCtr++;
-        } else if(lastTimeRange.overlaps(nextTimeRange)) {
-            startOfAvail = nextTimeRange.end();
-            timeRangesCtr++;
-        } else {
-            endOfAvail = nextTimeRange.start();
-            if((endOfAvail - startOfAvail) >= duration){
-                //Enough available time for the meeting so add it to the array list
-                availTimes.add(TimeRange.fromStartEnd(startOfAvail, endOfAvail, false));
-            }
-
-            lastTimeRange = nextTimeRange;
-            startOfAvail = nextTimeRange.end();
-            timeRangesCtr++;
+  //Returns the free time ranges between the busy time ranges, which must be sorted by start and
+  //end with the dummy event at the end of the day
+  private static Collection<TimeRange> findAvailableTimesInSorted(
+      List<TimeRange> timeRanges, long duration){
+    List<TimeRange> availTimes = new ArrayList<TimeRange>(); //Time ranges that are available for the meeting request
+
+    //Start of the free time that has not been accounted for yet
+    int startOfAvail = TimeRange.START_OF_DAY;
+
+    for(TimeRange nextTimeRange : timeRanges){
+        //Events with no duration do not keep anybody busy, but the dummy event at the end of the
+        //day still ends the free time
+        if(nextTimeRange.duration() <= 0 && nextTimeRange.start() <= TimeRange.END_OF_DAY){
+            continue;
         }
-    }
 
-    if(optionalAttendeesInRequest && availTimes.isEmpty()){
-        //If attempt to include optional attendees resulted in no time slots, try with just mandatory attendees
-        return query(events, new MeetingRequest(mandatory, duration));
-    } else {
-        return availTimes;
+        //Events may run past the end of the day, so never look beyond it
+        int endOfAvail = Math.min(nextTimeRange.start(), TimeRange.WHOLE_DAY.end());
+        addIfLongEnough(availTimes, startOfAvail, endOfAvail, duration);
+
+        //A nested event ends before the one containing it, so only ever move forward
+        startOfAvail = Math.max(startOfAvail, nextTimeRange.end());
     }
+    return availTimes;
   }
 
   //Returns time ranges of other events that attendees are attending
@@ -120,4 +524,11 @@ public final class FindMeetingQuery {
     timeRanges.add(TimeRange.fromStartDuration(TimeRange.END_OF_DAY + 1, 0));
     return timeRanges;
   }
+
+  private static void addIfLongEnough(List<TimeRange> availTimes, int startOfAvail, int endOfAvail, long duration){
+    //Enough available time for the meeting so add it to the array list
+    if(endOfAvail > startOfAvail && (endOfAvail - startOfAvail) >= duration){
+        availTimes.add(TimeRange.fromStartEnd(startOfAvail, endOfAvail, false));
+    }
+  }
 }
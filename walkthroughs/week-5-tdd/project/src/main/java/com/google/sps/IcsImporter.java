@@ -0,0 +1,372 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the VEVENTs of iCalendar (.ics) exports into a {@link CalendarService}, for one day of the
+ * calendar. Files are streamed through a pull parser, so only the event being read is held in
+ * memory, and events are sent to the service in batches so that readers do not see a new snapshot
+ * for every row.
+ *
+ * <p>The importer remembers the UID of every event it loaded. Importing a newer export of the same
+ * calendar only touches what changed: events whose UID is new are added, events whose time, title
+ * or attendees changed are replaced, and events whose UID is no longer in the file are removed.
+ *
+ * <p>The calendar has no time zones, so times are taken as written. Attendees are named by their
+ * {@code CN} parameter when they have one and by their address otherwise, and the organizer counts
+ * as an attendee. Recurrence rules are not expanded; only the first occurrence is loaded.
+ */
+public final class IcsImporter {
+  private static final int DEFAULT_BATCH_SIZE = 1000;
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+  private final CalendarService service;
+  private final LocalDate day;
+  private final int batchSize;
+
+  // The id and contents of each event loaded so far, by UID.
+  private final Map<String, Long> eventIds = new HashMap<>();
+  private final Map<String, Event> events = new HashMap<>();
+
+  /**
+   * Creates an importer that loads the events happening on {@code day} into {@code service}.
+   */
+  public IcsImporter(CalendarService service, LocalDate day) {
+    this(service, day, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates a new importer.
+   *
+   * @param service Where to load the events. Must be non-null.
+   * @param day The day to load. Events on other days are skipped, and events running past the day
+   *     are cut to it. Must be non-null.
+   * @param batchSize How many changes to send to the service at once. Must be positive.
+   */
+  public IcsImporter(CalendarService service, LocalDate day, int batchSize) {
+    if (service == null) {
+      throw new IllegalArgumentException("service cannot be null");
+    }
+
+    if (day == null) {
+      throw new IllegalArgumentException("day cannot be null");
+    }
+
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+
+    this.service = service;
+    this.day = day;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Reads a whole export from {@code reader} and brings the service in line with it.
+   */
+  public synchronized Result importFrom(Reader reader) throws IOException {
+    long startNanos = System.nanoTime();
+    Batch batch = new Batch();
+    Set<String> seen = new HashSet<>();
+    Result result = new Result();
+
+    IcsParser parser = new IcsParser(reader);
+    VEvent current = null;
+    for (IcsParser.ContentLine line = parser.next(); line != null; line = parser.next()) {
+      if (line.name.equals("BEGIN") && line.value.equalsIgnoreCase("VEVENT")) {
+        current = new VEvent();
+      } else if (line.name.equals("END") && line.value.equalsIgnoreCase("VEVENT")) {
+        if (current != null) {
+          result.rows++;
+          apply(current, seen, batch, result);
+          if (batch.size() >= batchSize) {
+            batch.flush();
+          }
+        }
+        current = null;
+      } else if (current != null) {
+        current.add(line);
+      }
+    }
+
+    // Whatever was loaded before but is not in this export any more has been deleted. Send the
+    // additions first so that only removals are pending while the loaded events are walked.
+    batch.flush();
+    Iterator<Map.Entry<String, Long>> loaded = eventIds.entrySet().iterator();
+    while (loaded.hasNext()) {
+      Map.Entry<String, Long> entry = loaded.next();
+      if (!seen.contains(entry.getKey())) {
+        batch.removedIds.add(entry.getValue());
+        events.remove(entry.getKey());
+        loaded.remove();
+        result.removed++;
+        if (batch.size() >= batchSize) {
+          batch.flush();
+        }
+      }
+    }
+    batch.flush();
+
+    result.lines = parser.getLineCount();
+    result.elapsedNanos = System.nanoTime() - startNanos;
+    return result;
+  }
+
+  /**
+   * Works out what one VEVENT means for the service and adds that to {@code batch}.
+   */
+  private void apply(VEvent vevent, Set<String> seen, Batch batch, Result result) {
+    Event event = vevent.toEvent(day);
+    if (vevent.uid == null || event == null || !seen.add(vevent.uid)) {
+      result.skipped++;
+      return;
+    }
+
+    Event loaded = events.get(vevent.uid);
+    if (event.equals(loaded)) {
+      result.unchanged++;
+      return;
+    }
+
+    if (loaded != null) {
+      batch.removedIds.add(eventIds.remove(vevent.uid));
+      result.updated++;
+    } else {
+      result.added++;
+    }
+    events.put(vevent.uid, event);
+    batch.addedUids.add(vevent.uid);
+    batch.addedEvents.add(event);
+  }
+
+  /**
+   * Changes waiting to be sent to the service.
+   */
+  private final class Batch {
+    final List<Long> removedIds = new ArrayList<>();
+    final List<String> addedUids = new ArrayList<>();
+    final List<Event> addedEvents = new ArrayList<>();
+
+    int size() {
+      return removedIds.size() + addedEvents.size();
+    }
+
+    void flush() {
+      if (size() == 0) {
+        return;
+      }
+
+      List<Long> addedIds = service.update(removedIds, addedEvents);
+      for (int i = 0; i < addedIds.size(); i++) {
+        eventIds.put(addedUids.get(i), addedIds.get(i));
+      }
+      removedIds.clear();
+      addedUids.clear();
+      addedEvents.clear();
+    }
+  }
+
+  /**
+   * The properties of one VEVENT that the calendar needs.
+   */
+  private static final class VEvent {
+    String uid;
+    String summary = "";
+    LocalDateTime start;
+    LocalDateTime end;
+    Duration duration;
+    boolean allDay;
+    final Set<String> attendees = new LinkedHashSet<>();
+
+    void add(IcsParser.ContentLine line) {
+      switch (line.name) {
+        case "UID":
+          uid = line.value;
+          break;
+        case "SUMMARY":
+          summary = line.textValue();
+          break;
+        case "DTSTART":
+          start = parseTime(line.value);
+          allDay = line.value.indexOf('T') < 0;
+          break;
+        case "DTEND":
+          end = parseTime(line.value);
+          break;
+        case "DURATION":
+          duration = parseDuration(line.value);
+          break;
+        case "ATTENDEE":
+        case "ORGANIZER":
+          String name = line.parameters.get("CN");
+          if (name == null) {
+            name = line.value.regionMatches(true, 0, "mailto:", 0, 7)
+                ? line.value.substring(7)
+                : line.value;
+          }
+          attendees.add(name);
+          break;
+        default:
+          break;
+      }
+    }
+
+    /**
+     * Returns the part of this event that falls on {@code day}, or null if none of it does or it
+     * cannot be read. Events that take no time never keep anyone busy, so they are left out too.
+     */
+    Event toEvent(LocalDate day) {
+      if (start == null) {
+        return null;
+      }
+
+      LocalDateTime until = end;
+      if (until == null) {
+        if (duration != null) {
+          until = start.plus(duration);
+        } else {
+          // Without an end, a date lasts the whole day and a time takes no time at all.
+          until = allDay ? start.plusDays(1) : start;
+        }
+      }
+
+      LocalDateTime dayStart = day.atStartOfDay();
+      long startMinute = Math.max(0, ChronoUnit.MINUTES.between(dayStart, start));
+      long endMinute = Math.min(MINUTES_PER_DAY, ChronoUnit.MINUTES.between(dayStart, until));
+      if (endMinute <= startMinute) {
+        return null;
+      }
+
+      return new Event(summary,
+          TimeRange.fromStartEnd((int) startMinute, (int) endMinute, false), attendees);
+    }
+
+    private static LocalDateTime parseTime(String value) {
+      try {
+        // Drop the UTC marker; the calendar has no time zones.
+        String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        return local.indexOf('T') < 0
+            ? LocalDate.parse(local, DATE).atStartOfDay()
+            : LocalDateTime.parse(local, DATE_TIME);
+      } catch (DateTimeParseException e) {
+        return null;
+      }
+    }
+
+    private static Duration parseDuration(String value) {
+      try {
+        // java.time does not know about weeks in durations.
+        if (value.matches("[+-]?P\\d+W")) {
+          int weeks = Integer.parseInt(value.replaceAll("\\D", ""));
+          return Duration.ofDays((value.startsWith("-") ? -7L : 7L) * weeks);
+        }
+        return Duration.parse(value);
+      } catch (DateTimeParseException | NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * What one import did, and how fast.
+   */
+  public static final class Result {
+    private long rows;
+    private long lines;
+    private long added;
+    private long updated;
+    private long removed;
+    private long unchanged;
+    private long skipped;
+    private long elapsedNanos;
+
+    /** Returns how many VEVENTs were read. */
+    public long getRows() {
+      return rows;
+    }
+
+    /** Returns how many physical lines were read. */
+    public long getLines() {
+      return lines;
+    }
+
+    /** Returns how many events were new. */
+    public long getAdded() {
+      return added;
+    }
+
+    /** Returns how many events were replaced because they changed. */
+    public long getUpdated() {
+      return updated;
+    }
+
+    /** Returns how many events were removed because they were no longer in the export. */
+    public long getRemoved() {
+      return removed;
+    }
+
+    /** Returns how many events were already loaded as they are. */
+    public long getUnchanged() {
+      return unchanged;
+    }
+
+    /**
+     * Returns how many VEVENTs were left out: those with no UID or start, those that take no time
+     * on the day being loaded, and repeated UIDs.
+     */
+    public long getSkipped() {
+      return skipped;
+    }
+
+    /** Returns how long the import took, in milliseconds. */
+    public long getElapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /** Returns how many VEVENTs were read per second. */
+    public double getRowsPerSecond() {
+      return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "Import: %d rows (%d added, %d updated, %d removed, %d unchanged, %d skipped) at %.0f/s",
+          rows, added, updated, removed, unchanged, skipped, getRowsPerSecond());
+    }
+  }
+}
@@ -0,0 +1,167 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pull parser for iCalendar (RFC 5545) content lines. Folded lines are joined back together as they
+ * are read, so only one logical line is held in memory at a time, however large the file is.
+ */
+final class IcsParser {
+  /**
+   * One logical line: a property name, its parameters and its raw value.
+   */
+  static final class ContentLine {
+    final String name;
+    final Map<String, String> parameters;
+    final String value;
+
+    ContentLine(String name, Map<String, String> parameters, String value) {
+      this.name = name;
+      this.parameters = parameters;
+      this.value = value;
+    }
+
+    /**
+     * Returns the value with TEXT escapes such as {@code \,} and {@code \n} undone.
+     */
+    String textValue() {
+      if (value.indexOf('\\') < 0) {
+        return value;
+      }
+
+      StringBuilder text = new StringBuilder(value.length());
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '\\' && i + 1 < value.length()) {
+          char escaped = value.charAt(++i);
+          text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+        } else {
+          text.append(c);
+        }
+      }
+      return text.toString();
+    }
+  }
+
+  private final BufferedReader reader;
+  private String pending;
+  private long lineCount;
+
+  IcsParser(Reader reader) {
+    this.reader = reader instanceof BufferedReader
+        ? (BufferedReader) reader
+        : new BufferedReader(reader);
+  }
+
+  /**
+   * Returns the next content line, or null at the end of the input. Blank lines are skipped.
+   */
+  ContentLine next() throws IOException {
+    String line = nextUnfolded();
+    while (line != null && line.isEmpty()) {
+      line = nextUnfolded();
+    }
+    return line == null ? null : parse(line);
+  }
+
+  /**
+   * Returns how many physical lines have been read so far.
+   */
+  long getLineCount() {
+    return lineCount;
+  }
+
+  private String nextUnfolded() throws IOException {
+    String line = pending != null ? pending : readLine();
+    pending = null;
+    if (line == null) {
+      return null;
+    }
+
+    // A line starting with a space or a tab continues the one before it.
+    StringBuilder unfolded = null;
+    String next = readLine();
+    while (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+      if (unfolded == null) {
+        unfolded = new StringBuilder(line);
+      }
+      unfolded.append(next, 1, next.length());
+      next = readLine();
+    }
+    pending = next;
+    return unfolded == null ? line : unfolded.toString();
+  }
+
+  private String readLine() throws IOException {
+    String line = reader.readLine();
+    if (line != null) {
+      lineCount++;
+    }
+    return line;
+  }
+
+  /**
+   * Splits {@code line} into its name, parameters and value. Colons and semicolons inside quoted
+   * parameter values do not count.
+   */
+  private static ContentLine parse(String line) {
+    Map<String, String> parameters = new HashMap<>();
+    int nameEnd = 0;
+    while (nameEnd < line.length() && line.charAt(nameEnd) != ';' && line.charAt(nameEnd) != ':') {
+      nameEnd++;
+    }
+    String name = line.substring(0, nameEnd).toUpperCase(Locale.ROOT);
+
+    int i = nameEnd;
+    while (i < line.length() && line.charAt(i) == ';') {
+      int equals = line.indexOf('=', i);
+      if (equals < 0) {
+        break;
+      }
+
+      String key = line.substring(i + 1, equals).toUpperCase(Locale.ROOT);
+      int valueStart = equals + 1;
+      int valueEnd = valueStart;
+      boolean quoted = false;
+      while (valueEnd < line.length()) {
+        char c = line.charAt(valueEnd);
+        if (c == '"') {
+          quoted = !quoted;
+        } else if (!quoted && (c == ';' || c == ':')) {
+          break;
+        }
+        valueEnd++;
+      }
+      parameters.put(key, unquote(line.substring(valueStart, valueEnd)));
+      i = valueEnd;
+    }
+
+    String value = i < line.length() ? line.substring(i + 1) : "";
+    return new ContentLine(name, parameters, value);
+  }
+
+  private static String unquote(String value) {
+    return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+        ? value.substring(1, value.length() - 1)
+        : value;
+  }
+}
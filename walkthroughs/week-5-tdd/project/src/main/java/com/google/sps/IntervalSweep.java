@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds the free times in a day from a set of busy intervals. Intervals are kept as parallel
+ * {@code int} arrays of starts and ends rather than {@code TimeRange} objects, so adding, sorting
+ * and scanning them does not allocate anything per interval. Only the returned free ranges are
+ * allocated.
+ *
+ * <p>An {@code IntervalSweep} can be reused by calling {@link #clear()}, but it is not safe to share
+ * one between threads.
+ */
+public final class IntervalSweep {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] starts;
+  private int[] ends;
+  private int size;
+
+  public IntervalSweep() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a new sweep with room for {@code capacity} intervals before it has to grow.
+   */
+  public IntervalSweep(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    starts = new int[capacity];
+    ends = new int[capacity];
+  }
+
+  /**
+   * Adds a busy interval from {@code start} (inclusive) to {@code end} (exclusive). The interval is
+   * clipped to the day, and intervals that are empty after clipping are ignored since nobody is
+   * busy during them.
+   */
+  public void add(int start, int end) {
+    start = Math.max(start, TimeRange.START_OF_DAY);
+    end = Math.min(end, TimeRange.WHOLE_DAY.end());
+    if (end <= start) {
+      return;
+    }
+
+    if (size == starts.length) {
+      int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+    }
+
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  /**
+   * Adds every range in {@code ranges} as a busy interval.
+   */
+  public void addAll(Collection<TimeRange> ranges) {
+    for (TimeRange range : ranges) {
+      add(range.start(), range.end());
+    }
+  }
+
+  /**
+   * Returns the number of busy intervals that have been added.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every busy interval, keeping the arrays for reuse.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns the free ranges of the day that are at least {@code duration} minutes long, ordered by
+   * start. Empty ranges are never returned.
+   */
+  public List<TimeRange> findAvailableTimes(long duration) {
+    // Starts and ends can be sorted independently: the number of intervals covering a minute is the
+    // number of starts at or before it minus the number of ends at or before it, and the day is
+    // free exactly where that count is zero.
+    Arrays.sort(starts, 0, size);
+    Arrays.sort(ends, 0, size);
+
+    List<TimeRange> availableTimes = new ArrayList<>();
+    int depth = 0;
+    int freeStart = TimeRange.START_OF_DAY;
+    int startIndex = 0;
+    int endIndex = 0;
+    while (startIndex < size) {
+      // At a tie, open the next interval before closing the previous one so that back-to-back
+      // intervals do not leave an empty gap between them.
+      if (starts[startIndex] <= ends[endIndex]) {
+        if (depth == 0) {
+          addIfLongEnough(availableTimes, freeStart, starts[startIndex], duration);
+        }
+        depth++;
+        startIndex++;
+      } else {
+        depth--;
+        if (depth == 0) {
+          freeStart = ends[endIndex];
+        }
+        endIndex++;
+      }
+    }
+
+    // Every interval has been opened, so the day is free again after the latest end.
+    if (size > 0) {
+      freeStart = ends[size - 1];
+    }
+    addIfLongEnough(availableTimes, freeStart, TimeRange.WHOLE_DAY.end(), duration);
+    return availableTimes;
+  }
+
+  private static void addIfLongEnough(
+      List<TimeRange> availableTimes, int start, int end, long duration) {
+    if (end > start && end - start >= duration) {
+      availableTimes.add(TimeRange.fromStartEnd(start, end, false));
+    }
+  }
+}
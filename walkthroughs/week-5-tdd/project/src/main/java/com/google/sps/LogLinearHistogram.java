@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts non-negative values in buckets whose width grows with the value, the way HdrHistogram
+ * does: every power of two is split into {@code 2^precisionBits} equal buckets, so any recorded
+ * value is known to within a relative error of {@code 2^-precisionBits} while the whole range of
+ * {@code long} fits in a few thousand counters. Recording is lock-free and allocation-free, so it
+ * is cheap enough to do on every query. Histograms are thread-safe.
+ */
+public final class LogLinearHistogram {
+  private final int precisionBits;
+  private final AtomicLongArray counts;
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Creates a histogram that keeps values to within 1 part in 32.
+   */
+  public LogLinearHistogram() {
+    this(5);
+  }
+
+  /**
+   * Creates a histogram that keeps values to within 1 part in {@code 2^precisionBits}.
+   *
+   * @param precisionBits Between 1 and 16.
+   */
+  public LogLinearHistogram(int precisionBits) {
+    if (precisionBits < 1 || precisionBits > 16) {
+      throw new IllegalArgumentException("precisionBits must be between 1 and 16");
+    }
+
+    this.precisionBits = precisionBits;
+    this.counts = new AtomicLongArray((64 - precisionBits) << precisionBits);
+  }
+
+  /**
+   * Adds {@code value} to the histogram. Negative values are counted as 0.
+   */
+  public void record(long value) {
+    value = Math.max(value, 0);
+    counts.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long previous = max.get();
+    while (value > previous && !max.compareAndSet(previous, value)) {
+      previous = max.get();
+    }
+  }
+
+  /**
+   * Returns the number of values recorded.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the largest value recorded, or 0 if there is none.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the values recorded, or 0 if there is none.
+   */
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : (double) sum.get() / n;
+  }
+
+  /**
+   * Returns a value that at least {@code percentile} percent of the recorded values are at or
+   * below: the top of the bucket holding that rank, but never more than {@link #getMax()}. Returns
+   * 0 if nothing has been recorded.
+   *
+   * @param percentile Between 0 and 100.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+
+    // Values recorded while this runs may or may not be seen; the answer is still a recorded rank.
+    long total = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      total += counts.get(i);
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValueIn(i), max.get());
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the index of the bucket that counts {@code value}.
+   */
+  int bucketOf(long value) {
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent < precisionBits) {
+      // Small values each get a bucket of their own.
+      return (int) value;
+    }
+    int shift = exponent - precisionBits;
+    return ((shift + 1) << precisionBits) + (int) ((value >>> shift) - (1L << precisionBits));
+  }
+
+  /**
+   * Returns the largest value counted by the bucket with {@code index}.
+   */
+  long highestValueIn(int index) {
+    int subBuckets = 1 << precisionBits;
+    if (index < subBuckets) {
+      return index;
+    }
+    int shift = (index >>> precisionBits) - 1;
+    long mantissa = (index & (subBuckets - 1)) + subBuckets;
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,383 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A read-only calendar served straight from a memory-mapped snapshot file, so that a scheduler can
+ * start without rebuilding its index from events. Opening a file only reads the header and the
+ * attendee names, and the checksum is only checked by {@link #verify}. Queries sweep the busy
+ * intervals out of the mapped buffer without making an {@code Event} or a {@code TimeRange} for
+ * them.
+ *
+ * <p>A file is a 32 byte header followed by five sections, all big-endian:
+ *
+ * <ul>
+ *   <li>header: magic, format version, attendee count, interval count, event count, event attendee
+ *       count, string pool size in bytes, and the CRC-32 of everything after the header
+ *   <li>attendees: name offset, first interval and interval count for each attendee, by id
+ *   <li>intervals: start and end of each busy time, grouped by attendee and sorted by start
+ *   <li>events: start, end, title offset, first event attendee and attendee count
+ *   <li>event attendees: the attendee ids of every event, back to back
+ *   <li>string pool: the length and UTF-8 bytes of every name and title
+ * </ul>
+ */
+public final class MappedCalendar implements AttendeeCalendar {
+  /** The first four bytes of every snapshot file, "SPSC". */
+  static final int MAGIC = 0x53505343;
+
+  /** The version of the format written by {@link #write}. */
+  static final int VERSION = 1;
+
+  static final int HEADER_SIZE = 32;
+  private static final int ATTENDEE_SIZE = 12;
+  private static final int INTERVAL_SIZE = 8;
+  private static final int EVENT_SIZE = 20;
+
+  private final ByteBuffer buffer;
+  private final AttendeeDictionary dictionary = new AttendeeDictionary();
+  private final int attendeesOffset;
+  private final int intervalsOffset;
+  private final int eventsOffset;
+  private final int eventAttendeesOffset;
+  private final int stringsOffset;
+  private final int eventCount;
+
+  private MappedCalendar(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a calendar snapshot");
+    }
+
+    int version = buffer.getInt(4);
+    if (version != VERSION) {
+      throw new IOException("Unsupported calendar snapshot version " + version);
+    }
+
+    int attendeeCount = buffer.getInt(8);
+    int intervalCount = buffer.getInt(12);
+    eventCount = buffer.getInt(16);
+    int eventAttendeeCount = buffer.getInt(20);
+    int stringsSize = buffer.getInt(24);
+    attendeesOffset = HEADER_SIZE;
+    intervalsOffset = attendeesOffset + attendeeCount * ATTENDEE_SIZE;
+    eventsOffset = intervalsOffset + intervalCount * INTERVAL_SIZE;
+    eventAttendeesOffset = eventsOffset + eventCount * EVENT_SIZE;
+    stringsOffset = eventAttendeesOffset + eventAttendeeCount * 4;
+    if (stringsOffset + stringsSize != buffer.capacity()) {
+      throw new IOException("Calendar snapshot is truncated");
+    }
+
+    // Ids are handed out in order, so the dictionary gives every name the id it was written with.
+    for (int id = 0; id < attendeeCount; id++) {
+      dictionary.encode(readString(buffer.getInt(attendeesOffset + id * ATTENDEE_SIZE)));
+    }
+  }
+
+  /**
+   * Maps the snapshot file at {@code path}. The file must not change while the calendar is in use.
+   * Only the header and the attendee names are read, so the checksum is not checked until
+   * {@link #verify} is called.
+   *
+   * @throws IOException if the file cannot be read, or is not a snapshot this version can read
+   */
+  public static MappedCalendar open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new MappedCalendar(buffer);
+    }
+  }
+
+  /**
+   * Writes a snapshot of {@code events} to {@code path}, replacing any file that is already there.
+   * The snapshot is written to a temporary file next to {@code path} first and then moved over it,
+   * so a reader sees either the old file or the whole new one.
+   *
+   * @param events The events to write. Must be non-null.
+   */
+  public static void write(Collection<Event> events, Path path) throws IOException {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    Path directory = path.toAbsolutePath().getParent();
+    Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        // Leave room for the header, which needs the counts and checksum of the body.
+        channel.position(HEADER_SIZE);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+        ByteBuffer header = writeBody(events, out);
+        out.flush();
+        channel.write(header, 0);
+        channel.force(true);
+      }
+      Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Returns the snapshot of {@code events}, as {@link #write} would write it.
+   */
+  static byte[] encode(Collection<Event> events) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(new byte[HEADER_SIZE]);
+    ByteBuffer header = writeBody(events, bytes);
+    byte[] snapshot = bytes.toByteArray();
+    header.get(snapshot, 0, HEADER_SIZE);
+    return snapshot;
+  }
+
+  /**
+   * Writes every section after the header of the snapshot of {@code events} to {@code target}, and
+   * returns the header that belongs in front of them.
+   */
+  private static ByteBuffer writeBody(Collection<Event> events, OutputStream target)
+      throws IOException {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    List<int[]> eventAttendees = new ArrayList<>(events.size());
+    List<List<TimeRange>> busyTimes = new ArrayList<>();
+    for (Event event : events) {
+      int[] ids = dictionary.encodeAll(event.getAttendees());
+      eventAttendees.add(ids);
+      for (int id : ids) {
+        while (busyTimes.size() <= id) {
+          busyTimes.add(new ArrayList<>());
+        }
+        busyTimes.get(id).add(event.getWhen());
+      }
+    }
+
+    StringPool strings = new StringPool();
+    CRC32 crc = new CRC32();
+    DataOutputStream body = new DataOutputStream(new CheckedOutputStream(target, crc));
+    int intervalCount = 0;
+    for (int id = 0; id < dictionary.size(); id++) {
+      List<TimeRange> times = busyTimes.get(id);
+      body.writeInt(strings.add(dictionary.nameOf(id)));
+      body.writeInt(intervalCount);
+      body.writeInt(times.size());
+      intervalCount += times.size();
+    }
+    for (List<TimeRange> times : busyTimes) {
+      Collections.sort(times, TimeRange.ORDER_BY_START);
+      for (TimeRange when : times) {
+        body.writeInt(when.start());
+        body.writeInt(when.end());
+      }
+    }
+
+    int eventAttendeeCount = 0;
+    int i = 0;
+    for (Event event : events) {
+      int[] ids = eventAttendees.get(i++);
+      body.writeInt(event.getWhen().start());
+      body.writeInt(event.getWhen().end());
+      body.writeInt(strings.add(event.getTitle()));
+      body.writeInt(eventAttendeeCount);
+      body.writeInt(ids.length);
+      eventAttendeeCount += ids.length;
+    }
+    for (int[] ids : eventAttendees) {
+      for (int id : ids) {
+        body.writeInt(id);
+      }
+    }
+    strings.writeTo(body);
+    body.flush();
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC);
+    header.putInt(VERSION);
+    header.putInt(dictionary.size());
+    header.putInt(intervalCount);
+    header.putInt(events.size());
+    header.putInt(eventAttendeeCount);
+    header.putInt(strings.size());
+    header.putInt((int) crc.getValue());
+    header.flip();
+    return header;
+  }
+
+  /**
+   * Returns the calendar in {@code bytes}, as {@link #encode} makes them.
+   */
+  static MappedCalendar decode(byte[] bytes) throws IOException {
+    return new MappedCalendar(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Checks the snapshot against the checksum in its header. This reads the whole file, so it is
+   * left to callers that are about to read most of it anyway, or that can afford to.
+   *
+   * @throws IOException if the snapshot has been damaged
+   */
+  public void verify() throws IOException {
+    CRC32 crc = new CRC32();
+    ByteBuffer body = buffer.duplicate();
+    body.position(HEADER_SIZE);
+    crc.update(body);
+    if ((int) crc.getValue() != buffer.getInt(28)) {
+      throw new IOException("Calendar snapshot checksum does not match");
+    }
+  }
+
+  /**
+   * Returns the times when the meeting in {@code request} could happen. The answer is the same as
+   * the one from {@link FindMeetingQuery#query(Collection, MeetingRequest)} for the events the
+   * snapshot was written from.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    return FindMeetingQuery.queryWith(request, (people, duration) -> {
+      int[] ids = dictionary.lookupAll(people);
+      int capacity = 0;
+      for (int id : ids) {
+        capacity += buffer.getInt(attendeesOffset + id * ATTENDEE_SIZE + 8);
+      }
+
+      IntervalSweep sweep = new IntervalSweep(capacity);
+      for (int id : ids) {
+        int first = buffer.getInt(attendeesOffset + id * ATTENDEE_SIZE + 4);
+        int count = buffer.getInt(attendeesOffset + id * ATTENDEE_SIZE + 8);
+        for (int offset = intervalsOffset + first * INTERVAL_SIZE;
+            offset < intervalsOffset + (first + count) * INTERVAL_SIZE; offset += INTERVAL_SIZE) {
+          sweep.add(buffer.getInt(offset), buffer.getInt(offset + 4));
+        }
+      }
+      return sweep.findAvailableTimes(duration);
+    });
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This makes a new {@code TimeRange} for every busy time. {@link #query} does not need them.
+   */
+  @Override
+  public List<TimeRange> getBusyTimes(String attendee) {
+    int id = dictionary.lookup(attendee);
+    if (id == AttendeeDictionary.NOT_FOUND) {
+      return Collections.emptyList();
+    }
+
+    int first = buffer.getInt(attendeesOffset + id * ATTENDEE_SIZE + 4);
+    int count = buffer.getInt(attendeesOffset + id * ATTENDEE_SIZE + 8);
+    List<TimeRange> times = new ArrayList<>(count);
+    for (int i = first; i < first + count; i++) {
+      int offset = intervalsOffset + i * INTERVAL_SIZE;
+      times.add(TimeRange.fromStartEnd(buffer.getInt(offset), buffer.getInt(offset + 4), false));
+    }
+    return Collections.unmodifiableList(times);
+  }
+
+  /**
+   * Returns the number of events in the snapshot.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Reads the event at {@code index}, in the order the events were written.
+   */
+  public Event getEvent(int index) {
+    if (index < 0 || index >= eventCount) {
+      throw new IndexOutOfBoundsException("No event " + index);
+    }
+
+    int offset = eventsOffset + index * EVENT_SIZE;
+    int first = buffer.getInt(offset + 12);
+    int count = buffer.getInt(offset + 16);
+    List<String> attendees = new ArrayList<>(count);
+    for (int i = first; i < first + count; i++) {
+      attendees.add(dictionary.nameOf(buffer.getInt(eventAttendeesOffset + i * 4)));
+    }
+    return new Event(readString(buffer.getInt(offset + 8)),
+        TimeRange.fromStartEnd(buffer.getInt(offset), buffer.getInt(offset + 4), false), attendees);
+  }
+
+  /**
+   * Returns the dictionary holding the attendee ids of the snapshot.
+   */
+  public AttendeeDictionary getDictionary() {
+    return dictionary;
+  }
+
+  private String readString(int poolOffset) {
+    ByteBuffer bytes = buffer.duplicate();
+    bytes.position(stringsOffset + poolOffset + 4);
+    bytes.limit(stringsOffset + poolOffset + 4 + buffer.getInt(stringsOffset + poolOffset));
+    return StandardCharsets.UTF_8.decode(bytes).toString();
+  }
+
+  /**
+   * Collects the strings of a snapshot, storing each distinct string once.
+   */
+  private static final class StringPool {
+    private final Map<String, Integer> offsets = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    /**
+     * Returns the offset of {@code string} in the pool, adding it if it is not there yet.
+     */
+    int add(String string) throws IOException {
+      Integer offset = offsets.get(string);
+      if (offset == null) {
+        offset = out.size();
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+        offsets.put(string, offset);
+      }
+      return offset;
+    }
+
+    int size() {
+      return out.size();
+    }
+
+    void writeTo(OutputStream target) throws IOException {
+      out.flush();
+      bytes.writeTo(target);
+    }
+  }
+}
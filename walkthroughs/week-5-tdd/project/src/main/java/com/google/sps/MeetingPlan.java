@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The times chosen for a list of meetings by a {@link MeetingPlanner}, in the same order as the
+ * meetings. Meetings that could not be placed have no time. Plans are considered read-only.
+ */
+public final class MeetingPlan {
+  private final List<TimeRange> times;
+  private final int placedCount;
+  private final boolean complete;
+
+  /**
+   * Creates a new plan.
+   *
+   * @param times The time of each meeting, or null for meetings that were not placed. Must be
+   *     non-null.
+   * @param complete Whether the planner finished searching, so that no plan places more meetings.
+   */
+  public MeetingPlan(List<TimeRange> times, boolean complete) {
+    if (times == null) {
+      throw new IllegalArgumentException("times cannot be null. Use empty array instead.");
+    }
+
+    this.times = Collections.unmodifiableList(new ArrayList<>(times));
+    this.complete = complete;
+
+    int placed = 0;
+    for (TimeRange time : times) {
+      if (time != null) {
+        placed++;
+      }
+    }
+    this.placedCount = placed;
+  }
+
+  /**
+   * Returns a read-only list of the time of each meeting, with null for meetings that were not
+   * placed.
+   */
+  public List<TimeRange> getTimes() {
+    return times;
+  }
+
+  /**
+   * Returns the time of the meeting with the given index, or null if it was not placed.
+   */
+  public TimeRange getTime(int index) {
+    return times.get(index);
+  }
+
+  /**
+   * Returns how many meetings have a time.
+   */
+  public int getPlacedCount() {
+    return placedCount;
+  }
+
+  /**
+   * Returns whether every meeting has a time.
+   */
+  public boolean isFullyPlaced() {
+    return placedCount == times.size();
+  }
+
+  /**
+   * Returns whether the planner searched every option, rather than running out of time. A plan that
+   * is not complete may place fewer meetings than possible.
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Plan: %s%s", times, complete ? "" : " (out of time)");
+  }
+}
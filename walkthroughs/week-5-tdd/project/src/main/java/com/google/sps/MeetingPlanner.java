@@ -0,0 +1,271 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Places several meetings on one calendar at once, so that no two meetings that share an attendee
+ * overlap. Booking them one by one often takes the only time that suits a later meeting; the
+ * planner instead searches over every meeting's candidate starts together.
+ *
+ * <p>The search picks the meeting with the fewest starts left first, removes the starts that
+ * conflict with each choice from the other meetings right away, and backs up as soon as it cannot
+ * beat the best plan found so far. A meeting that cannot be placed is left out rather than failing
+ * the plan, so when the time budget runs out the plan placing the most meetings is returned.
+ */
+public final class MeetingPlanner {
+  private static final int DEFAULT_GRANULARITY = 15;
+
+  private static final int UNASSIGNED = -1;
+  private static final int SKIPPED = -2;
+
+  private final AttendeeCalendar calendar;
+  private final int granularity;
+  private final FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+
+  /**
+   * Creates a planner that tries starts every 15 minutes from the beginning of each free gap.
+   */
+  public MeetingPlanner(AttendeeCalendar calendar) {
+    this(calendar, DEFAULT_GRANULARITY);
+  }
+
+  /**
+   * Creates a new planner.
+   *
+   * @param calendar The busy times the meetings must avoid. Must be non-null.
+   * @param granularity How many minutes apart the starts tried within a free gap are. Must be
+   *     positive.
+   */
+  public MeetingPlanner(AttendeeCalendar calendar, int granularity) {
+    if (calendar == null) {
+      throw new IllegalArgumentException("calendar cannot be null");
+    }
+
+    if (granularity <= 0) {
+      throw new IllegalArgumentException("granularity must be positive");
+    }
+
+    this.calendar = calendar;
+    this.granularity = granularity;
+  }
+
+  /**
+   * Returns times for as many of {@code requests} as possible, where each time works for its
+   * meeting the way {@link FindMeetingQuery#query(AttendeeCalendar, MeetingRequest)} decides, and
+   * no two meetings that share a mandatory attendee overlap. Stops searching after
+   * {@code budgetMillis} milliseconds and returns the best plan found by then.
+   */
+  public MeetingPlan plan(List<MeetingRequest> requests, long budgetMillis) {
+    if (requests == null) {
+      throw new IllegalArgumentException("requests cannot be null. Use empty array instead.");
+    }
+
+    return new Search(requests, budgetMillis).run();
+  }
+
+  /**
+   * The state of one call to {@link #plan}.
+   */
+  private final class Search {
+    final int count;
+    final int[] durations;
+    // The candidate starts of each meeting, and the depth at which each candidate was ruled out by
+    // an earlier choice, or 0 while it is still possible.
+    final int[][] starts;
+    final int[][] prunedAt;
+    final int[] liveCount;
+    // The meetings that share a mandatory attendee with each meeting.
+    final int[][] neighbors;
+    final int[] assigned;
+    final long deadline;
+
+    int placedCount;
+    int[] best;
+    int bestPlacedCount = -1;
+    boolean outOfTime;
+
+    Search(List<MeetingRequest> requests, long budgetMillis) {
+      this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+      this.count = requests.size();
+      this.durations = new int[count];
+      this.starts = new int[count][];
+      this.prunedAt = new int[count][];
+      this.liveCount = new int[count];
+      this.neighbors = new int[count][];
+      this.assigned = new int[count];
+      Arrays.fill(assigned, UNASSIGNED);
+
+      for (int i = 0; i < count; i++) {
+        MeetingRequest request = requests.get(i);
+        durations[i] = (int) request.getDuration();
+        starts[i] = candidateStarts(request);
+        prunedAt[i] = new int[starts[i].length];
+        liveCount[i] = starts[i].length;
+      }
+
+      for (int i = 0; i < count; i++) {
+        Set<String> attendees = new HashSet<>(requests.get(i).getAttendees());
+        List<Integer> shared = new ArrayList<>();
+        for (int j = 0; j < count; j++) {
+          if (j != i && !Collections.disjoint(attendees, requests.get(j).getAttendees())) {
+            shared.add(j);
+          }
+        }
+        neighbors[i] = new int[shared.size()];
+        for (int k = 0; k < shared.size(); k++) {
+          neighbors[i][k] = shared.get(k);
+        }
+      }
+    }
+
+    MeetingPlan run() {
+      search(1);
+
+      List<TimeRange> times = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        times.add(best[i] < 0 ? null : TimeRange.fromStartDuration(best[i], durations[i]));
+      }
+      return new MeetingPlan(times, !outOfTime);
+    }
+
+    private void search(int depth) {
+      if (System.nanoTime() > deadline) {
+        outOfTime = true;
+        record();
+        return;
+      }
+
+      // Pick the meeting with the fewest starts left, as it is the most likely to run out.
+      int next = UNASSIGNED;
+      int reachable = placedCount;
+      for (int i = 0; i < count; i++) {
+        if (assigned[i] != UNASSIGNED) {
+          continue;
+        }
+        if (liveCount[i] > 0) {
+          reachable++;
+        }
+        if (next == UNASSIGNED || liveCount[i] < liveCount[next]
+            || (liveCount[i] == liveCount[next] && neighbors[i].length > neighbors[next].length)) {
+          next = i;
+        }
+      }
+
+      if (next == UNASSIGNED) {
+        record();
+        return;
+      }
+
+      // Even placing every meeting that still has a start left would not beat the best plan.
+      if (reachable <= bestPlacedCount) {
+        return;
+      }
+
+      for (int c = 0; c < starts[next].length; c++) {
+        if (prunedAt[next][c] != 0) {
+          continue;
+        }
+
+        assigned[next] = starts[next][c];
+        placedCount++;
+        prune(next, depth);
+        search(depth + 1);
+        unprune(next, depth);
+        placedCount--;
+        assigned[next] = UNASSIGNED;
+
+        if (outOfTime || bestPlacedCount == count) {
+          return;
+        }
+      }
+
+      // Also try leaving this meeting out, in case that lets more of the others fit.
+      assigned[next] = SKIPPED;
+      search(depth + 1);
+      assigned[next] = UNASSIGNED;
+    }
+
+    /**
+     * Rules out the starts of the unassigned neighbours of {@code meeting} that would overlap it.
+     */
+    private void prune(int meeting, int depth) {
+      int start = assigned[meeting];
+      int end = start + durations[meeting];
+      for (int neighbor : neighbors[meeting]) {
+        if (assigned[neighbor] != UNASSIGNED) {
+          continue;
+        }
+        for (int c = 0; c < starts[neighbor].length; c++) {
+          int otherStart = starts[neighbor][c];
+          if (prunedAt[neighbor][c] == 0 && otherStart < end
+              && start < otherStart + durations[neighbor]) {
+            prunedAt[neighbor][c] = depth;
+            liveCount[neighbor]--;
+          }
+        }
+      }
+    }
+
+    /**
+     * Brings back the starts that {@link #prune} ruled out at {@code depth}.
+     */
+    private void unprune(int meeting, int depth) {
+      for (int neighbor : neighbors[meeting]) {
+        for (int c = 0; c < starts[neighbor].length; c++) {
+          if (prunedAt[neighbor][c] == depth) {
+            prunedAt[neighbor][c] = 0;
+            liveCount[neighbor]++;
+          }
+        }
+      }
+    }
+
+    private void record() {
+      if (placedCount > bestPlacedCount) {
+        bestPlacedCount = placedCount;
+        best = assigned.clone();
+      }
+    }
+  }
+
+  /**
+   * Returns the starts to try for {@code request}: the beginning of each free gap and every
+   * {@code granularity} minutes after it, as long as the meeting still fits in the gap.
+   */
+  private int[] candidateStarts(MeetingRequest request) {
+    // A meeting with no duration still needs a minute of the gap to start in.
+    long duration = Math.max(request.getDuration(), 1);
+    List<Integer> starts = new ArrayList<>();
+    for (TimeRange gap : findMeetingQuery.query(calendar, request)) {
+      for (int start = gap.start(); start + duration <= gap.end(); start += granularity) {
+        starts.add(start);
+      }
+    }
+
+    int[] candidates = new int[starts.size()];
+    for (int i = 0; i < candidates.length; i++) {
+      candidates[i] = starts.get(i);
+    }
+    return candidates;
+  }
+}
@@ -30,6 +30,11 @@ public final class MeetingRequest {
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // Used by Gson so that the collections are created even when the JSON leaves them out.
+  private MeetingRequest() {
+    this(Collections.emptyList(), 0);
+  }
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
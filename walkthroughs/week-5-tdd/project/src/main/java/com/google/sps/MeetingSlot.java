@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A time when a meeting could happen, together with the people who would be able to come to it
+ * beyond the ones that had to be free anyway. Slots are considered read-only.
+ */
+public final class MeetingSlot {
+  private final TimeRange when;
+  private final Set<String> attendees = new HashSet<>();
+
+  /**
+   * Creates a new slot.
+   *
+   * @param when The time the meeting could happen. Must be non-null.
+   * @param attendees The people who are free for the whole slot. Must be non-null.
+   */
+  public MeetingSlot(TimeRange when, Collection<String> attendees) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    this.when = when;
+    this.attendees.addAll(attendees);
+  }
+
+  /**
+   * Returns the {@code TimeRange} for when the meeting could happen.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only set of the people who are free for the whole slot.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees);
+  }
+
+  /**
+   * Returns how many people are free for the whole slot.
+   */
+  public int getAttendeeCount() {
+    return attendees.size();
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof MeetingSlot && equals(this, (MeetingSlot) other);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Slot: %s with %s", when, attendees);
+  }
+
+  private static boolean equals(MeetingSlot a, MeetingSlot b) {
+    return a.when.equals(b.when) && a.attendees.equals(b.attendees);
+  }
+}
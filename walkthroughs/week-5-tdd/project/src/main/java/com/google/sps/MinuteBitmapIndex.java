@@ -0,0 +1,153 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scheduling engine that keeps, for every attendee, one bit per minute of the day that is set when
+ * they are busy. A day fits in 23 {@code long}s, so answering a request costs one OR per word per
+ * attendee plus a scan over the words, no matter how many events each person has.
+ */
+public final class MinuteBitmapIndex {
+  private static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int WORDS_PER_DAY = (MINUTES_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+
+  private final Map<String, long[]> busyMinutes = new HashMap<>();
+
+  /**
+   * Creates a new index.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public MinuteBitmapIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null. Use empty array instead.");
+    }
+
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      for (String attendee : event.getAttendees()) {
+        long[] minutes = busyMinutes.computeIfAbsent(attendee, person -> new long[WORDS_PER_DAY]);
+        setRange(minutes, when.start(), when.end());
+      }
+    }
+  }
+
+  /**
+   * Returns the times when the meeting in {@code request} could happen. The answer is the same as
+   * the one from {@link FindMeetingQuery#query(Collection, MeetingRequest)}.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    return FindMeetingQuery.queryWith(request, this::findAvailableTimes);
+  }
+
+  private List<TimeRange> findAvailableTimes(Collection<String> attendees, long duration) {
+    long[] busy = new long[WORDS_PER_DAY];
+    for (String attendee : attendees) {
+      long[] minutes = busyMinutes.get(attendee);
+      if (minutes != null) {
+        for (int i = 0; i < WORDS_PER_DAY; i++) {
+          busy[i] |= minutes[i];
+        }
+      }
+    }
+
+    // Mark the unused bits of the last word as busy so that every free run ends inside the array.
+    setRange(busy, MINUTES_PER_DAY, WORDS_PER_DAY * Long.SIZE);
+
+    List<TimeRange> availableTimes = new ArrayList<>();
+    int freeStart = nextFreeMinute(busy, 0);
+    while (freeStart < MINUTES_PER_DAY) {
+      int freeEnd = nextBusyMinute(busy, freeStart);
+      if (freeEnd - freeStart >= duration) {
+        availableTimes.add(TimeRange.fromStartEnd(freeStart, freeEnd, false));
+      }
+      freeStart = nextFreeMinute(busy, freeEnd);
+    }
+    return availableTimes;
+  }
+
+  /**
+   * Returns the first minute at or after {@code from} whose bit is clear, or the number of bits in
+   * {@code words} if there is none.
+   */
+  private static int nextFreeMinute(long[] words, int from) {
+    int index = from / Long.SIZE;
+    if (index >= words.length) {
+      return words.length * Long.SIZE;
+    }
+
+    long word = ~words[index] & (-1L << (from % Long.SIZE));
+    while (word == 0) {
+      if (++index == words.length) {
+        return words.length * Long.SIZE;
+      }
+      word = ~words[index];
+    }
+    return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+  }
+
+  /**
+   * Returns the first minute at or after {@code from} whose bit is set, or the number of bits in
+   * {@code words} if there is none.
+   */
+  private static int nextBusyMinute(long[] words, int from) {
+    int index = from / Long.SIZE;
+    if (index >= words.length) {
+      return words.length * Long.SIZE;
+    }
+
+    long word = words[index] & (-1L << (from % Long.SIZE));
+    while (word == 0) {
+      if (++index == words.length) {
+        return words.length * Long.SIZE;
+      }
+      word = words[index];
+    }
+    return index * Long.SIZE + Long.numberOfTrailingZeros(word);
+  }
+
+  /**
+   * Sets the bits from {@code start} (inclusive) to {@code end} (exclusive), clipped to the size of
+   * {@code words}.
+   */
+  private static void setRange(long[] words, int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, words.length * Long.SIZE);
+    if (end <= start) {
+      return;
+    }
+
+    int startIndex = start / Long.SIZE;
+    int endIndex = (end - 1) / Long.SIZE;
+    long startMask = -1L << (start % Long.SIZE);
+    long endMask = -1L >>> (Long.SIZE - 1 - (end - 1) % Long.SIZE);
+    if (startIndex == endIndex) {
+      words[startIndex] |= startMask & endMask;
+      return;
+    }
+
+    words[startIndex] |= startMask;
+    for (int i = startIndex + 1; i < endIndex; i++) {
+      words[i] = -1L;
+    }
+    words[endIndex] |= endMask;
+  }
+}
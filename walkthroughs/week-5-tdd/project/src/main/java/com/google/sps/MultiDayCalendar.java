@@ -0,0 +1,166 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A calendar spanning any number of days that can find free slots over weeks or months at once,
+ * such as "60 minutes for these 12 people in the next 3 weeks". Each attendee's busy times are kept
+ * in a {@link BusyTimeline}, so jumping past a busy stretch takes logarithmic time per attendee
+ * instead of one sweep per day. Recurring events are never expanded up front: each series is asked
+ * for the occurrence next to the time being checked, and only for the people being queried.
+ * Calendars are considered read-only; use a {@link Builder} to make one.
+ */
+public final class MultiDayCalendar {
+  private final Map<String, List<BusySource>> busySources = new HashMap<>();
+
+  private MultiDayCalendar(
+      Map<String, List<CalendarRange>> busyTimes, List<RecurringEvent> recurringEvents) {
+    for (Map.Entry<String, List<CalendarRange>> entry : busyTimes.entrySet()) {
+      busySourcesOf(entry.getKey()).add(new BusyTimeline(entry.getValue()));
+    }
+
+    // One timeline per series, shared by everyone attending it.
+    for (RecurringEvent event : recurringEvents) {
+      RecurringTimeline timeline = new RecurringTimeline(event);
+      for (String attendee : event.getAttendees()) {
+        busySourcesOf(attendee).add(timeline);
+      }
+    }
+  }
+
+  private List<BusySource> busySourcesOf(String attendee) {
+    return busySources.computeIfAbsent(attendee, person -> new ArrayList<>());
+  }
+
+  /**
+   * Returns the times within {@code window} when the meeting in {@code request} could happen. The
+   * attendees are handled the same way as by
+   * {@link FindMeetingQuery#query(Collection, MeetingRequest)}: optional attendees are dropped if
+   * including them leaves no time at all.
+   */
+  public List<CalendarRange> query(MeetingRequest request, CalendarRange window) {
+    long duration = request.getDuration();
+    List<CalendarRange> availableTimes = new ArrayList<>();
+    if (duration < 0 || duration > window.duration()) {
+      return availableTimes;
+    }
+
+    Collection<String> attendees = new HashSet<>(request.getAttendees());
+    attendees.addAll(request.getOptionalAttendees());
+    availableTimes = findAvailableTimes(attendees, duration, window);
+    if (availableTimes.isEmpty() && !request.getOptionalAttendees().isEmpty()) {
+      availableTimes = findAvailableTimes(request.getAttendees(), duration, window);
+    }
+    return availableTimes;
+  }
+
+  /**
+   * Returns the free times within {@code window} shared by all of {@code attendees} that are at
+   * least {@code duration} minutes long, ordered by start.
+   */
+  public List<CalendarRange> findAvailableTimes(
+      Collection<String> attendees, long duration, CalendarRange window) {
+    // A series attended by more than one of the attendees only needs to be checked once.
+    Set<BusySource> sources = new LinkedHashSet<>();
+    for (String attendee : attendees) {
+      List<BusySource> attendeeSources = busySources.get(attendee);
+      if (attendeeSources != null) {
+        sources.addAll(attendeeSources);
+      }
+    }
+    List<BusySource> busy = new ArrayList<>(sources);
+
+    // Free time has to be at least a minute long to be worth returning.
+    long minimumLength = Math.max(1, duration);
+    List<CalendarRange> availableTimes = new ArrayList<>();
+    long from = window.start();
+    while (from + minimumLength <= window.end()) {
+      // Keep pushing the candidate start past whoever is busy until nobody objects.
+      long start = from;
+      boolean moved = true;
+      while (moved && start + minimumLength <= window.end()) {
+        moved = false;
+        for (BusySource source : busy) {
+          long next = source.nextFree(start, minimumLength);
+          if (next > start) {
+            start = next;
+            moved = true;
+          }
+        }
+      }
+      if (start + minimumLength > window.end()) {
+        break;
+      }
+
+      // Everyone is free from start, so the slot lasts until the first of them becomes busy.
+      long end = window.end();
+      for (BusySource source : busy) {
+        end = Math.min(end, source.nextBusy(start));
+      }
+      availableTimes.add(CalendarRange.fromStartEnd(start, end));
+      from = end;
+    }
+    return availableTimes;
+  }
+
+  /**
+   * Collects busy times for a {@link MultiDayCalendar}.
+   */
+  public static final class Builder {
+    private final Map<String, List<CalendarRange>> busyTimes = new HashMap<>();
+    private final List<RecurringEvent> recurringEvents = new ArrayList<>();
+
+    /**
+     * Marks every one of {@code attendees} as busy during {@code when}.
+     */
+    public Builder addEvent(Collection<String> attendees, CalendarRange when) {
+      for (String attendee : attendees) {
+        busyTimes.computeIfAbsent(attendee, person -> new ArrayList<>()).add(when);
+      }
+      return this;
+    }
+
+    /**
+     * Adds every one of {@code events} as happening on {@code epochDay}.
+     */
+    public Builder addEvents(long epochDay, Collection<Event> events) {
+      for (Event event : events) {
+        addEvent(event.getAttendees(), CalendarRange.onDay(epochDay, event.getWhen()));
+      }
+      return this;
+    }
+
+    /**
+     * Adds every occurrence of {@code event}, without expanding any of them.
+     */
+    public Builder addRecurringEvent(RecurringEvent event) {
+      recurringEvents.add(event);
+      return this;
+    }
+
+    public MultiDayCalendar build() {
+      return new MultiDayCalendar(busyTimes, recurringEvents);
+    }
+  }
+}
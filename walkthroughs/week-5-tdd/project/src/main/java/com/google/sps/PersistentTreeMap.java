@@ -0,0 +1,247 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable sorted map. Adding or removing a key returns a new map that shares everything but
+ * the O(log n) nodes on the path to that key with the old one, so old versions stay valid and can be
+ * read from any thread without locking. The map is a treap: each node gets a random priority and the
+ * tree is kept in heap order on it, which keeps it balanced in expectation.
+ */
+final class PersistentTreeMap<K, V> {
+  private static final class Node<K, V> {
+    final K key;
+    final V value;
+    final int priority;
+    final Node<K, V> left;
+    final Node<K, V> right;
+    final int size;
+
+    Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.priority = priority;
+      this.left = left;
+      this.right = right;
+      this.size = 1 + size(left) + size(right);
+    }
+
+    Node<K, V> withChildren(Node<K, V> left, Node<K, V> right) {
+      return new Node<>(key, value, priority, left, right);
+    }
+  }
+
+  private final Comparator<? super K> comparator;
+  private final Node<K, V> root;
+
+  PersistentTreeMap(Comparator<? super K> comparator) {
+    this(comparator, null);
+  }
+
+  private PersistentTreeMap(Comparator<? super K> comparator, Node<K, V> root) {
+    this.comparator = comparator;
+    this.root = root;
+  }
+
+  /**
+   * Returns a map of each of {@code keys} to the value at the same index of {@code values}. The
+   * keys must already be in increasing order, which lets the tree be built in O(n) instead of
+   * putting them one at a time.
+   */
+  static <K, V> PersistentTreeMap<K, V> fromSorted(
+      Comparator<? super K> comparator, List<K> keys, List<V> values) {
+    int count = keys.size();
+    if (values.size() != count) {
+      throw new IllegalArgumentException("keys and values must be as many");
+    }
+
+    // Add the keys in order to the right of the tree, each taking as its left child the part of
+    // the right spine that it has a higher priority than. That keeps the tree in heap order.
+    int[] priorities = new int[count];
+    int[] lefts = new int[count];
+    int[] rights = new int[count];
+    Arrays.fill(lefts, -1);
+    Arrays.fill(rights, -1);
+    int[] spine = new int[count];
+    int spineSize = 0;
+    for (int i = 0; i < count; i++) {
+      if (i > 0 && comparator.compare(keys.get(i - 1), keys.get(i)) >= 0) {
+        throw new IllegalArgumentException("keys must be in increasing order");
+      }
+
+      priorities[i] = ThreadLocalRandom.current().nextInt();
+      int left = -1;
+      while (spineSize > 0 && priorities[spine[spineSize - 1]] < priorities[i]) {
+        left = spine[--spineSize];
+      }
+      lefts[i] = left;
+      if (spineSize > 0) {
+        rights[spine[spineSize - 1]] = i;
+      }
+      spine[spineSize++] = i;
+    }
+
+    Node<K, V> root =
+        spineSize == 0 ? null : toNode(spine[0], keys, values, priorities, lefts, rights);
+    return new PersistentTreeMap<>(comparator, root);
+  }
+
+  private static <K, V> Node<K, V> toNode(
+      int i, List<K> keys, List<V> values, int[] priorities, int[] lefts, int[] rights) {
+    return new Node<>(keys.get(i), values.get(i), priorities[i],
+        lefts[i] < 0 ? null : toNode(lefts[i], keys, values, priorities, lefts, rights),
+        rights[i] < 0 ? null : toNode(rights[i], keys, values, priorities, lefts, rights));
+  }
+
+  /**
+   * Returns the number of keys in the map.
+   */
+  int size() {
+    return size(root);
+  }
+
+  boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Returns the value for {@code key}, or null if the map does not contain it.
+   */
+  V get(K key) {
+    Node<K, V> node = root;
+    while (node != null) {
+      int compare = comparator.compare(key, node.key);
+      if (compare == 0) {
+        return node.value;
+      }
+      node = compare < 0 ? node.left : node.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a map that also maps {@code key} to {@code value}, replacing any previous value.
+   */
+  PersistentTreeMap<K, V> put(K key, V value) {
+    return new PersistentTreeMap<>(
+        comparator, put(root, key, value, ThreadLocalRandom.current().nextInt()));
+  }
+
+  /**
+   * Returns a map without {@code key}. Returns this map if it does not contain {@code key}.
+   */
+  PersistentTreeMap<K, V> remove(K key) {
+    Node<K, V> newRoot = remove(root, key);
+    return newRoot == root ? this : new PersistentTreeMap<>(comparator, newRoot);
+  }
+
+  /**
+   * Calls {@code action} for every entry, in key order.
+   */
+  void forEach(BiConsumer<? super K, ? super V> action) {
+    forEach(root, action);
+  }
+
+  /**
+   * Returns a new list of the values, in key order.
+   */
+  List<V> values() {
+    List<V> values = new ArrayList<>(size());
+    forEach((key, value) -> values.add(value));
+    return values;
+  }
+
+  private Node<K, V> put(Node<K, V> node, K key, V value, int priority) {
+    if (node == null) {
+      return new Node<>(key, value, priority, null, null);
+    }
+
+    int compare = comparator.compare(key, node.key);
+    if (compare == 0) {
+      return new Node<>(key, value, node.priority, node.left, node.right);
+    }
+
+    if (compare < 0) {
+      Node<K, V> left = put(node.left, key, value, priority);
+      if (left.priority > node.priority) {
+        // Rotate right so that the higher priority stays on top.
+        return left.withChildren(left.left, node.withChildren(left.right, node.right));
+      }
+      return node.withChildren(left, node.right);
+    }
+
+    Node<K, V> right = put(node.right, key, value, priority);
+    if (right.priority > node.priority) {
+      // Rotate left so that the higher priority stays on top.
+      return right.withChildren(node.withChildren(node.left, right.left), right.right);
+    }
+    return node.withChildren(node.left, right);
+  }
+
+  private Node<K, V> remove(Node<K, V> node, K key) {
+    if (node == null) {
+      return null;
+    }
+
+    int compare = comparator.compare(key, node.key);
+    if (compare == 0) {
+      return merge(node.left, node.right);
+    }
+
+    if (compare < 0) {
+      Node<K, V> left = remove(node.left, key);
+      return left == node.left ? node : node.withChildren(left, node.right);
+    }
+
+    Node<K, V> right = remove(node.right, key);
+    return right == node.right ? node : node.withChildren(node.left, right);
+  }
+
+  /**
+   * Joins two trees where every key in {@code left} comes before every key in {@code right}.
+   */
+  private Node<K, V> merge(Node<K, V> left, Node<K, V> right) {
+    if (left == null) {
+      return right;
+    }
+    if (right == null) {
+      return left;
+    }
+
+    if (left.priority > right.priority) {
+      return left.withChildren(left.left, merge(left.right, right));
+    }
+    return right.withChildren(merge(left, right.left), right.right);
+  }
+
+  private static <K, V> void forEach(Node<K, V> node, BiConsumer<? super K, ? super V> action) {
+    while (node != null) {
+      forEach(node.left, action);
+      action.accept(node.key, node.value);
+      node = node.right;
+    }
+  }
+
+  private static int size(Node<?, ?> node) {
+    return node == null ? 0 : node.size;
+  }
+}
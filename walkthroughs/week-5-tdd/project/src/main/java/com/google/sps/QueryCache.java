@@ -0,0 +1,191 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of {@link FindMeetingQuery} answers that evicts the least recently used entry
+ * when full. Entries are keyed by the attendees, optional attendees and duration of a request, and
+ * remember the version of every one of those attendees' busy times. An entry is only used while
+ * none of those people have had their events change, so updates to the calendar never need to
+ * flush the cache.
+ */
+public final class QueryCache {
+  /**
+   * The normalized parts of a request that decide its answer.
+   */
+  private static final class Key {
+    final List<String> attendees;
+    final List<String> optionalAttendees;
+    final long duration;
+
+    Key(MeetingRequest request) {
+      attendees = sorted(request.getAttendees());
+      optionalAttendees = sorted(request.getOptionalAttendees());
+      duration = request.getDuration();
+    }
+
+    @Override
+    public int hashCode() {
+      return (attendees.hashCode() * 31 + optionalAttendees.hashCode()) * 31
+          + Long.hashCode(duration);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return duration == key.duration && attendees.equals(key.attendees)
+          && optionalAttendees.equals(key.optionalAttendees);
+    }
+
+    private static List<String> sorted(Collection<String> people) {
+      List<String> sorted = new ArrayList<>(people);
+      Collections.sort(sorted);
+      return sorted;
+    }
+  }
+
+  /**
+   * A cached answer and the versions of the attendees' busy times it was computed from, with the
+   * attendees first and the optional attendees after them, in key order.
+   */
+  private static final class Entry {
+    final long[] versions;
+    final Collection<TimeRange> answer;
+
+    Entry(long[] versions, Collection<TimeRange> answer) {
+      this.versions = versions;
+      this.answer = answer;
+    }
+  }
+
+  private final int capacity;
+  private final Map<Key, Entry> entries;
+  private final FindMeetingQuery findMeetingQuery;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates a cache that holds at most {@code capacity} answers.
+   */
+  public QueryCache(int capacity) {
+    this(capacity, new FindMeetingQuery());
+  }
+
+  /**
+   * Creates a cache that holds at most {@code capacity} answers and computes misses with
+   * {@code findMeetingQuery}.
+   */
+  public QueryCache(int capacity, FindMeetingQuery findMeetingQuery) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    if (findMeetingQuery == null) {
+      throw new IllegalArgumentException("findMeetingQuery cannot be null");
+    }
+
+    this.capacity = capacity;
+    this.findMeetingQuery = findMeetingQuery;
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, /* accessOrder= */ true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        return size() > QueryCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the same answer as {@link FindMeetingQuery#query(AttendeeCalendar, MeetingRequest)},
+   * reusing an earlier answer if nobody in the request has had their events change since.
+   */
+  public Collection<TimeRange> query(CalendarSnapshot snapshot, MeetingRequest request) {
+    Key key = new Key(request);
+    long[] versions = versionsOf(snapshot, key);
+
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    if (entry != null && Arrays.equals(entry.versions, versions)) {
+      hits.incrementAndGet();
+      return entry.answer;
+    }
+
+    // Compute outside the lock so that one slow query does not hold up every other lookup.
+    misses.incrementAndGet();
+    Collection<TimeRange> answer =
+        Collections.unmodifiableList(new ArrayList<>(findMeetingQuery.query(snapshot, request)));
+    synchronized (entries) {
+      entries.put(key, new Entry(versions, answer));
+    }
+    return answer;
+  }
+
+  /**
+   * Returns how many queries were answered from the cache.
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * Returns how many queries had to be computed, either because they were not cached or because
+   * one of their attendees' events had changed.
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of cached answers.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Returns the most answers the cache holds.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  private static long[] versionsOf(CalendarSnapshot snapshot, Key key) {
+    long[] versions = new long[key.attendees.size() + key.optionalAttendees.size()];
+    int i = 0;
+    for (String attendee : key.attendees) {
+      versions[i++] = snapshot.getVersion(attendee);
+    }
+    for (String attendee : key.optionalAttendees) {
+      versions[i++] = snapshot.getVersion(attendee);
+    }
+    return versions;
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where the time of {@link FindMeetingQuery#query} goes, for a {@code FindMeetingQuery} that was
+ * made with these metrics. Each phase of a query is timed into its own {@link LogLinearHistogram}:
+ * finding the busy times of the attendees, sorting them, and sweeping them for free time. The
+ * number of events scanned and busy times kept are recorded alongside, and so is how often the
+ * query had to be retried without its optional attendees.
+ *
+ * <p>Nothing is recorded until the metrics are enabled, and a disabled query only pays for reading
+ * one flag. Metrics are thread-safe.
+ */
+public final class QueryMetrics {
+  private volatile boolean enabled;
+
+  private final LogLinearHistogram queryNanos = new LogLinearHistogram();
+  private final LogLinearHistogram filterNanos = new LogLinearHistogram();
+  private final LogLinearHistogram sortNanos = new LogLinearHistogram();
+  private final LogLinearHistogram sweepNanos = new LogLinearHistogram();
+  private final LogLinearHistogram eventsScanned = new LogLinearHistogram();
+  private final LogLinearHistogram intervalsKept = new LogLinearHistogram();
+  private final AtomicLong retries = new AtomicLong();
+
+  /**
+   * Creates metrics that are disabled until {@link #setEnabled} turns them on.
+   */
+  public QueryMetrics() {
+    this(false);
+  }
+
+  public QueryMetrics(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns the nanoseconds each whole query took, retry included.
+   */
+  public LogLinearHistogram getQueryNanos() {
+    return queryNanos;
+  }
+
+  /**
+   * Returns the nanoseconds spent finding the busy times of the attendees of each attempt.
+   */
+  public LogLinearHistogram getFilterNanos() {
+    return filterNanos;
+  }
+
+  /**
+   * Returns the nanoseconds spent sorting the busy times of each attempt. Queries against an
+   * {@link AttendeeCalendar} sort while they sweep, and count it as sweeping.
+   */
+  public LogLinearHistogram getSortNanos() {
+    return sortNanos;
+  }
+
+  /**
+   * Returns the nanoseconds spent sweeping the busy times of each attempt for free time.
+   */
+  public LogLinearHistogram getSweepNanos() {
+    return sweepNanos;
+  }
+
+  /**
+   * Returns the number of events each attempt looked at. Queries against an
+   * {@link AttendeeCalendar} never look at events, and do not record this.
+   */
+  public LogLinearHistogram getEventsScanned() {
+    return eventsScanned;
+  }
+
+  /**
+   * Returns the number of busy times each attempt kept for the sweep.
+   */
+  public LogLinearHistogram getIntervalsKept() {
+    return intervalsKept;
+  }
+
+  /**
+   * Returns the number of queries that found no time for everybody and were retried with only
+   * their mandatory attendees.
+   */
+  public long getRetryCount() {
+    return retries.get();
+  }
+
+  void recordQuery(long nanos, boolean retried) {
+    queryNanos.record(nanos);
+    if (retried) {
+      retries.incrementAndGet();
+    }
+  }
+}
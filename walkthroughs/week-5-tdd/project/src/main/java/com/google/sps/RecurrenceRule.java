@@ -0,0 +1,270 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Which days a recurring event happens on: every {@code interval} days, or on some weekdays of
+ * every {@code interval} weeks, starting on a first day and ending after a number of occurrences or
+ * on a last day, minus any exception days. Days are counted since 1970-01-01 (see
+ * {@code LocalDate.toEpochDay()}).
+ *
+ * <p>Occurrences are never stored. The first occurrence on or after any day is computed directly
+ * from the rule, so a series that runs for years costs the same as one that runs for a week. As in
+ * iCalendar, exception days still count towards the number of occurrences. Rules are considered
+ * read-only; use {@link #daily(long)} or {@link #weekly(long)} to make one.
+ */
+public final class RecurrenceRule {
+  /**
+   * How often a rule repeats.
+   */
+  public enum Frequency {
+    DAILY,
+    WEEKLY
+  }
+
+  private static final int DAYS_PER_WEEK = 7;
+
+  private final Frequency frequency;
+  private final int interval;
+  private final long firstDay;
+  // ISO weekday numbers, Monday being 1, in increasing order. Only used by weekly rules.
+  private final int[] weekdays;
+  private final long lastDay;
+  private final long[] exceptions;
+
+  private RecurrenceRule(Builder builder) {
+    this.frequency = builder.frequency;
+    this.interval = builder.interval;
+    this.firstDay = builder.firstDay;
+
+    Set<DayOfWeek> days = builder.weekdays.isEmpty()
+        ? EnumSet.of(DayOfWeek.of(isoWeekday(firstDay)))
+        : builder.weekdays;
+    this.weekdays = days.stream().mapToInt(DayOfWeek::getValue).sorted().toArray();
+
+    long last = builder.until;
+    if (builder.count >= 0) {
+      last = builder.count == 0 ? firstDay - 1 : Math.min(last, nthOccurrence(builder.count - 1));
+    }
+    this.lastDay = last;
+    this.exceptions = builder.exceptions.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * Returns a builder for a rule that repeats every day, starting on {@code firstDay}.
+   */
+  public static Builder daily(long firstDay) {
+    return new Builder(Frequency.DAILY, firstDay);
+  }
+
+  /**
+   * Returns a builder for a rule that repeats every week, starting on {@code firstDay}. Unless
+   * other weekdays are given, the rule repeats on the weekday of {@code firstDay}.
+   */
+  public static Builder weekly(long firstDay) {
+    return new Builder(Frequency.WEEKLY, firstDay);
+  }
+
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  public int getInterval() {
+    return interval;
+  }
+
+  public long getFirstDay() {
+    return firstDay;
+  }
+
+  /**
+   * Returns the last day the rule could happen on, or {@code Long.MAX_VALUE} if it never ends. The
+   * day itself may be an exception.
+   */
+  public long getLastDay() {
+    return lastDay;
+  }
+
+  /**
+   * Returns the first day on or after {@code epochDay} that the rule happens on, or
+   * {@code Long.MAX_VALUE} if there is none.
+   */
+  public long nextOccurrence(long epochDay) {
+    long day = nextScheduled(epochDay);
+    while (day != Long.MAX_VALUE && Arrays.binarySearch(exceptions, day) >= 0) {
+      day = nextScheduled(day + 1);
+    }
+    return day;
+  }
+
+  /**
+   * Returns the first day on or after {@code epochDay} that the rule happens on before exceptions
+   * are taken out, or {@code Long.MAX_VALUE} if there is none.
+   */
+  private long nextScheduled(long epochDay) {
+    long from = Math.max(epochDay, firstDay);
+    if (from > lastDay) {
+      return Long.MAX_VALUE;
+    }
+
+    long day;
+    if (frequency == Frequency.DAILY) {
+      long periods = (from - firstDay + interval - 1) / interval;
+      day = firstDay + periods * interval;
+    } else {
+      long firstWeek = weekStart(firstDay);
+      long week = (weekStart(from) - firstWeek) / DAYS_PER_WEEK;
+      day = Long.MAX_VALUE;
+      if (week % interval == 0) {
+        int weekday = isoWeekday(from);
+        for (int candidate : weekdays) {
+          if (candidate >= weekday) {
+            day = weekStart(from) + candidate - 1;
+            break;
+          }
+        }
+      }
+      if (day == Long.MAX_VALUE) {
+        // Move on to the first weekday of the next week the rule is active in.
+        long nextWeek = (week / interval + 1) * interval;
+        day = firstWeek + nextWeek * DAYS_PER_WEEK + weekdays[0] - 1;
+      }
+    }
+    return day > lastDay ? Long.MAX_VALUE : day;
+  }
+
+  /**
+   * Returns the day of the occurrence with the given index, counting from 0 and including
+   * exceptions, ignoring when the rule ends.
+   */
+  private long nthOccurrence(long index) {
+    if (frequency == Frequency.DAILY) {
+      return firstDay + index * interval;
+    }
+
+    // The first week only has the weekdays from firstDay on.
+    long firstWeek = weekStart(firstDay);
+    int firstWeekday = isoWeekday(firstDay);
+    int inFirstWeek = 0;
+    for (int weekday : weekdays) {
+      if (weekday >= firstWeekday) {
+        inFirstWeek++;
+      }
+    }
+    if (index < inFirstWeek) {
+      return firstWeek + weekdays[weekdays.length - inFirstWeek + (int) index] - 1;
+    }
+
+    long later = index - inFirstWeek;
+    long weeks = 1 + later / weekdays.length;
+    return firstWeek + weeks * interval * DAYS_PER_WEEK
+        + weekdays[(int) (later % weekdays.length)] - 1;
+  }
+
+  /**
+   * Returns the ISO weekday of {@code epochDay}, from 1 for Monday to 7 for Sunday.
+   */
+  private static int isoWeekday(long epochDay) {
+    // 1970-01-01 was a Thursday.
+    return (int) Math.floorMod(epochDay + 3, (long) DAYS_PER_WEEK) + 1;
+  }
+
+  /**
+   * Returns the Monday of the week {@code epochDay} is in.
+   */
+  private static long weekStart(long epochDay) {
+    return epochDay - isoWeekday(epochDay) + 1;
+  }
+
+  /**
+   * Collects the parts of a {@link RecurrenceRule}.
+   */
+  public static final class Builder {
+    private final Frequency frequency;
+    private final long firstDay;
+    private int interval = 1;
+    private final Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+    private int count = -1;
+    private long until = Long.MAX_VALUE;
+    private final Set<Long> exceptions = new TreeSet<>();
+
+    private Builder(Frequency frequency, long firstDay) {
+      this.frequency = frequency;
+      this.firstDay = firstDay;
+    }
+
+    /**
+     * Repeats every {@code interval} days or weeks instead of every one.
+     */
+    public Builder every(int interval) {
+      if (interval <= 0) {
+        throw new IllegalArgumentException("interval must be positive");
+      }
+
+      this.interval = interval;
+      return this;
+    }
+
+    /**
+     * Repeats on each of {@code days} in the weeks the rule is active. Only for weekly rules.
+     */
+    public Builder on(DayOfWeek... days) {
+      if (frequency != Frequency.WEEKLY) {
+        throw new IllegalArgumentException("only weekly rules repeat on weekdays");
+      }
+
+      weekdays.addAll(Arrays.asList(days));
+      return this;
+    }
+
+    /**
+     * Ends the rule after {@code count} occurrences, exceptions included.
+     */
+    public Builder count(int count) {
+      if (count < 0) {
+        throw new IllegalArgumentException("count cannot be negative");
+      }
+
+      this.count = count;
+      return this;
+    }
+
+    /**
+     * Ends the rule after {@code epochDay}.
+     */
+    public Builder until(long epochDay) {
+      this.until = epochDay;
+      return this;
+    }
+
+    /**
+     * Skips the occurrence on {@code epochDay}, if there is one.
+     */
+    public Builder except(long epochDay) {
+      exceptions.add(epochDay);
+      return this;
+    }
+
+    public RecurrenceRule build() {
+      return new RecurrenceRule(this);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A series of events that happen at the same time of day on every day picked by a
+ * {@link RecurrenceRule}, such as a daily stand-up or a weekly one-on-one. Occurrences are worked
+ * out when they are needed instead of being stored. Recurring events are considered read-only.
+ */
+public final class RecurringEvent {
+  private final String title;
+  private final TimeRange when;
+  private final Set<String> attendees = new HashSet<>();
+  private final RecurrenceRule rule;
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time of day each occurrence takes place. Must be non-null and within the day.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param rule The days the event happens on. Must be non-null.
+   */
+  public RecurringEvent(
+      String title, TimeRange when, Collection<String> attendees, RecurrenceRule rule) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (when.start() < 0 || when.end() > TimeRange.WHOLE_DAY.end()) {
+      throw new IllegalArgumentException("when must be within the day");
+    }
+
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (rule == null) {
+      throw new IllegalArgumentException("rule cannot be null");
+    }
+
+    this.title = title;
+    this.when = when;
+    this.attendees.addAll(attendees);
+    this.rule = rule;
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the time of day each occurrence takes place.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public Set<String> getAttendees() {
+    return Collections.unmodifiableSet(attendees);
+  }
+
+  /**
+   * Returns the days this event happens on.
+   */
+  public RecurrenceRule getRule() {
+    return rule;
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, ordered by start. Only the days in the
+   * window are looked at.
+   */
+  public List<CalendarRange> getOccurrences(CalendarRange window) {
+    List<CalendarRange> occurrences = new ArrayList<>();
+    if (when.duration() <= 0) {
+      return occurrences;
+    }
+
+    long day = rule.nextOccurrence(Math.floorDiv(window.start(), CalendarRange.MINUTES_PER_DAY));
+    while (day != Long.MAX_VALUE) {
+      CalendarRange occurrence = CalendarRange.onDay(day, when);
+      if (occurrence.start() >= window.end()) {
+        break;
+      }
+      if (occurrence.overlaps(window)) {
+        occurrences.add(occurrence);
+      }
+      day = rule.nextOccurrence(day + 1);
+    }
+    return occurrences;
+  }
+}
@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * The occurrences of one {@link RecurringEvent} as busy times, expanded one at a time around the
+ * time being asked about. Each occurrence falls within its own day, so the occurrence that matters
+ * is always found from the rule in a step or two.
+ */
+final class RecurringTimeline implements BusySource {
+  // How many occurrences nextFree steps over before handing back the time it has reached, so that a
+  // series that never leaves a long enough gap cannot keep it going forever.
+  private static final int MAX_OCCURRENCES_PER_CALL = 64;
+
+  private final RecurrenceRule rule;
+  private final TimeRange when;
+
+  RecurringTimeline(RecurringEvent event) {
+    this.rule = event.getRule();
+    this.when = event.getWhen();
+  }
+
+  @Override
+  public long nextFree(long from, long duration) {
+    long time = from;
+    for (int i = 0; i < MAX_OCCURRENCES_PER_CALL; i++) {
+      long day = firstDayEndingAfter(time);
+      if (day == Long.MAX_VALUE
+          || CalendarRange.getEpochMinute(day, when.start()) >= time + duration) {
+        return time;
+      }
+      time = CalendarRange.getEpochMinute(day, when.end());
+    }
+    return time;
+  }
+
+  @Override
+  public long nextBusy(long from) {
+    long day = firstDayEndingAfter(from);
+    return day == Long.MAX_VALUE ? Long.MAX_VALUE : CalendarRange.getEpochMinute(day, when.start());
+  }
+
+  /**
+   * Returns the day of the first occurrence that ends after {@code time}, or {@code Long.MAX_VALUE}
+   * if there is none.
+   */
+  private long firstDayEndingAfter(long time) {
+    if (when.duration() <= 0) {
+      return Long.MAX_VALUE;
+    }
+
+    long day = rule.nextOccurrence(Math.floorDiv(time, CalendarRange.MINUTES_PER_DAY));
+    if (day != Long.MAX_VALUE && CalendarRange.getEpochMinute(day, when.end()) <= time) {
+      day = rule.nextOccurrence(day + 1);
+    }
+    return day;
+  }
+}
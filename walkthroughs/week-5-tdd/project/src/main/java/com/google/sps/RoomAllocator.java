@@ -0,0 +1,133 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Assigns rooms to a day of meetings. Rooms are grouped into tiers by capacity, and each meeting
+ * gets a free room from the smallest tier that fits it, so large rooms stay free for large
+ * meetings.
+ *
+ * <p>Meetings are handled in order of start, the way the interval partitioning algorithm does it:
+ * rooms whose meetings have ended go back to the sorted free-list of their tier, and a set of the
+ * tiers with free rooms finds the smallest fitting tier in O(log tiers). Assigning a day of
+ * {@code b} meetings over {@code r} rooms costs O((b + r) log (b + r)), no matter how many rooms
+ * are busy.
+ */
+public final class RoomAllocator {
+  private final List<Room> rooms;
+  // Distinct capacities in increasing order, and the tier of each room.
+  private final int[] tierCapacities;
+  private final int[] roomTiers;
+
+  /**
+   * Creates an allocator for {@code rooms}.
+   *
+   * @param rooms The rooms to assign. Must be non-null.
+   */
+  public RoomAllocator(Collection<Room> rooms) {
+    if (rooms == null) {
+      throw new IllegalArgumentException("rooms cannot be null. Use empty array instead.");
+    }
+
+    this.rooms = new ArrayList<>(rooms);
+    int[] capacities = new int[this.rooms.size()];
+    for (int i = 0; i < capacities.length; i++) {
+      capacities[i] = this.rooms.get(i).getCapacity();
+    }
+    tierCapacities = Arrays.stream(capacities).sorted().distinct().toArray();
+
+    roomTiers = new int[capacities.length];
+    for (int i = 0; i < capacities.length; i++) {
+      roomTiers[i] = Arrays.binarySearch(tierCapacities, capacities[i]);
+    }
+  }
+
+  /**
+   * Returns the room assigned to each of {@code requests}, in the same order, or null for requests
+   * that no free room fits. Two requests only get the same room if their times do not overlap.
+   * When several rooms of a tier are free, the one given first to the constructor is used.
+   */
+  public List<Room> allocate(List<RoomRequest> requests) {
+    if (requests == null) {
+      throw new IllegalArgumentException("requests cannot be null. Use empty array instead.");
+    }
+
+    Integer[] order = new Integer[requests.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, Comparator.comparingInt(i -> requests.get(i).getWhen().start()));
+
+    // The free-list of each tier, lowest room index first, and the tiers that have a free room.
+    List<PriorityQueue<Integer>> freeRooms = new ArrayList<>(tierCapacities.length);
+    for (int tier = 0; tier < tierCapacities.length; tier++) {
+      freeRooms.add(new PriorityQueue<Integer>());
+    }
+    for (int room = 0; room < rooms.size(); room++) {
+      freeRooms.get(roomTiers[room]).add(room);
+    }
+    TreeSet<Integer> tiersWithFreeRooms = new TreeSet<>();
+    for (int tier = 0; tier < tierCapacities.length; tier++) {
+      tiersWithFreeRooms.add(tier);
+    }
+
+    // Rooms in use, encoded as (end << 32) | room so that the heap orders them by when they free up.
+    PriorityQueue<Long> roomsInUse = new PriorityQueue<>();
+
+    Room[] assigned = new Room[requests.size()];
+    for (int index : order) {
+      RoomRequest request = requests.get(index);
+      int start = request.getWhen().start();
+      while (!roomsInUse.isEmpty() && (int) (roomsInUse.peek() >> 32) <= start) {
+        int room = (int) (long) roomsInUse.poll();
+        int tier = roomTiers[room];
+        freeRooms.get(tier).add(room);
+        tiersWithFreeRooms.add(tier);
+      }
+
+      int smallestTier = firstTierFitting(request.getHeadCount());
+      Integer tier = tiersWithFreeRooms.ceiling(smallestTier);
+      if (tier == null) {
+        continue;
+      }
+
+      int room = freeRooms.get(tier).poll();
+      if (freeRooms.get(tier).isEmpty()) {
+        tiersWithFreeRooms.remove(tier);
+      }
+      assigned[index] = rooms.get(room);
+      roomsInUse.add(((long) request.getWhen().end() << 32) | room);
+    }
+    return Collections.unmodifiableList(Arrays.asList(assigned));
+  }
+
+  /**
+   * Returns the index of the smallest tier whose rooms fit {@code headCount} people, or the number
+   * of tiers if none do.
+   */
+  private int firstTierFitting(int headCount) {
+    int tier = Arrays.binarySearch(tierCapacities, headCount);
+    return tier >= 0 ? tier : -tier - 1;
+  }
+}
@@ -0,0 +1,77 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * A meeting at a fixed time that needs a room for a number of people. Requests are considered
+ * read-only.
+ */
+public final class RoomRequest {
+  private final TimeRange when;
+  private final int headCount;
+
+  /**
+   * Creates a new request.
+   *
+   * @param when The time the room is needed. Must be non-null.
+   * @param headCount How many people the room must fit. Must not be negative.
+   */
+  public RoomRequest(TimeRange when, int headCount) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (headCount < 0) {
+      throw new IllegalArgumentException("headCount cannot be negative");
+    }
+
+    this.when = when;
+    this.headCount = headCount;
+  }
+
+  /**
+   * Returns a request for a room for the meeting in {@code request}, starting at the beginning of
+   * {@code slot}, one of the times {@link FindMeetingQuery} found for it. The room must fit every
+   * mandatory and optional attendee.
+   */
+  public static RoomRequest forSlot(MeetingRequest request, TimeRange slot) {
+    if (slot.duration() < request.getDuration()) {
+      throw new IllegalArgumentException("slot is shorter than the meeting");
+    }
+
+    return new RoomRequest(
+        TimeRange.fromStartDuration(slot.start(), (int) request.getDuration()),
+        request.getAttendees().size() + request.getOptionalAttendees().size());
+  }
+
+  /**
+   * Returns the time the room is needed.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns how many people the room must fit.
+   */
+  public int getHeadCount() {
+    return headCount;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Room request: %s for %d", when, headCount);
+  }
+}
@@ -0,0 +1,102 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Decides how good a meeting start is, for queries that only return the best few starts. Higher
+ * scores are better; starts with the same score are ranked earliest first.
+ *
+ * <p>Besides scoring one start, a scorer gives an upper bound on the score of every start within a
+ * free gap. Gaps are visited from the highest bound down, so the bound must never be lower than the
+ * real score of a start in that gap, or the ranking may stop before it reaches the best starts.
+ */
+public interface SlotScorer {
+  /**
+   * Prefers the earliest starts of the day.
+   */
+  SlotScorer EARLIEST_START = new SlotScorer() {
+    @Override
+    public double score(TimeRange gap, int start, long duration) {
+      return -start;
+    }
+
+    @Override
+    public double upperBound(TimeRange gap, long duration) {
+      return -gap.start();
+    }
+  };
+
+  /**
+   * Prefers starts that leave the free time around the meeting in as few pieces as possible: first
+   * meetings that fill a gap exactly, then meetings at either edge of a gap, and last meetings that
+   * split a gap in two.
+   */
+  SlotScorer LEAST_FRAGMENTATION = new SlotScorer() {
+    @Override
+    public double score(TimeRange gap, int start, long duration) {
+      int pieces = 0;
+      if (start > gap.start()) {
+        pieces++;
+      }
+      if (start + duration < gap.end()) {
+        pieces++;
+      }
+      return -pieces;
+    }
+
+    @Override
+    public double upperBound(TimeRange gap, long duration) {
+      return gap.duration() == duration ? 0 : -1;
+    }
+  };
+
+  /**
+   * Returns a scorer that prefers starts whose meetings spend the most minutes between
+   * {@code workdayStart} and {@code workdayEnd}, both in minutes from the start of the day.
+   */
+  static SlotScorer workingHours(int workdayStart, int workdayEnd) {
+    if (workdayEnd < workdayStart) {
+      throw new IllegalArgumentException("workdayEnd cannot be before workdayStart");
+    }
+
+    return new SlotScorer() {
+      @Override
+      public double score(TimeRange gap, int start, long duration) {
+        return overlap(start, start + duration, workdayStart, workdayEnd);
+      }
+
+      @Override
+      public double upperBound(TimeRange gap, long duration) {
+        return Math.min(duration, overlap(gap.start(), gap.end(), workdayStart, workdayEnd));
+      }
+
+      private long overlap(long start, long end, long otherStart, long otherEnd) {
+        return Math.max(0, Math.min(end, otherEnd) - Math.max(start, otherStart));
+      }
+    };
+  }
+
+  /**
+   * Returns the score of a meeting of {@code duration} minutes starting at {@code start}, which is
+   * inside the free {@code gap}.
+   */
+  double score(TimeRange gap, int start, long duration);
+
+  /**
+   * Returns a score no lower than that of any meeting of {@code duration} minutes that fits in the
+   * free {@code gap}.
+   */
+  double upperBound(TimeRange gap, long duration);
+}
@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A fixed group of people, such as a team, that is registered with a {@link CalendarService} so
+ * that the times when any of them is busy are kept merged into one list. Each event that any member
+ * attends is counted once, as a +1 where it starts and a -1 where it ends, so adding or removing an
+ * event only changes two counts in a persistent tree, in O(log n). Reading is not that cheap: the
+ * first read after each change walks every count into merged busy times, in O(n), and only the
+ * reads after it share that list. Groups are considered read-only; a change to the calendar makes
+ * new ones.
+ */
+public final class StandingGroup {
+  private final Set<String> members;
+  private final PersistentTreeMap<Integer, Integer> changes;
+
+  // The merged busy times, walked out of the counts by the first query that asks for them.
+  private volatile List<TimeRange> busyTimes;
+
+  private StandingGroup(Set<String> members, PersistentTreeMap<Integer, Integer> changes) {
+    this.members = members;
+    this.changes = changes;
+  }
+
+  /**
+   * Returns a group of {@code members} who are not busy at all.
+   */
+  static StandingGroup of(Collection<String> members) {
+    return new StandingGroup(Collections.unmodifiableSet(new HashSet<>(members)),
+        new PersistentTreeMap<Integer, Integer>(Comparator.<Integer>naturalOrder()));
+  }
+
+  /**
+   * Returns a read-only set of the people in the group.
+   */
+  public Set<String> getMembers() {
+    return members;
+  }
+
+  /**
+   * Returns a read-only list of the times when at least one member is busy, sorted by start. The
+   * times neither overlap nor touch.
+   */
+  public List<TimeRange> getBusyTimes() {
+    List<TimeRange> merged = busyTimes;
+    if (merged == null) {
+      // Two queries may both merge the counts, but they get the same times.
+      merged = merge(changes);
+      busyTimes = merged;
+    }
+    return merged;
+  }
+
+  /**
+   * Returns true if any of {@code attendees} is in the group.
+   */
+  boolean includesAny(Collection<String> attendees) {
+    for (String attendee : attendees) {
+      if (members.contains(attendee)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns this group with one more event at {@code when}, or one fewer if {@code count} is -1.
+   */
+  StandingGroup with(TimeRange when, int count) {
+    PersistentTreeMap<Integer, Integer> newChanges = add(changes, when.start(), count);
+    newChanges = add(newChanges, when.end(), -count);
+    return newChanges == changes ? this : new StandingGroup(members, newChanges);
+  }
+
+  private static PersistentTreeMap<Integer, Integer> add(
+      PersistentTreeMap<Integer, Integer> changes, int time, int change) {
+    Integer previous = changes.get(time);
+    int next = (previous == null ? 0 : previous) + change;
+    // Counts that cancel out are dropped, so an event with no duration changes nothing.
+    return next == 0 ? changes.remove(time) : changes.put(time, next);
+  }
+
+  private static List<TimeRange> merge(PersistentTreeMap<Integer, Integer> changes) {
+    List<TimeRange> merged = new ArrayList<>();
+    int[] depth = new int[1];
+    int[] busyStart = new int[1];
+    changes.forEach((time, change) -> {
+      if (depth[0] == 0) {
+        busyStart[0] = time;
+      }
+      depth[0] += change;
+      if (depth[0] == 0) {
+        merged.add(TimeRange.fromStartEnd(busyStart[0], time, false));
+      }
+    });
+    return Collections.unmodifiableList(merged);
+  }
+}
@@ -0,0 +1,326 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A compact binary encoding of the time ranges and events that the servlets send, for clients that
+ * ask for {@link #MEDIA_TYPE}. Numbers are written as base-128 varints, each start as the
+ * difference from the start before it, and each time as its start and duration. Attendee names are
+ * written once, in a table at the front, and events refer to them by their sorted ids, each written
+ * as the difference from the id before it.
+ *
+ * <p>Both messages start with one byte saying what they hold:
+ *
+ * <ul>
+ *   <li>time ranges: 1, count, then start delta and duration for each
+ *   <li>events: 2, name count, names, event count, then title, start delta, duration, attendee
+ *       count and attendee id deltas for each
+ * </ul>
+ *
+ * <p>Strings are their UTF-8 length followed by their UTF-8 bytes. Start deltas are zigzag encoded,
+ * since times need not be sorted.
+ */
+public final class WireFormat {
+  /** The media type of the encoding, for Accept and Content-Type headers. */
+  public static final String MEDIA_TYPE = "application/x-sps-calendar";
+
+  private static final int TIME_RANGES = 1;
+  private static final int EVENTS = 2;
+
+  private WireFormat() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns true if a client that sent {@code accept} as its Accept header can read this encoding.
+   * The client has to name {@link #MEDIA_TYPE} itself with a quality above zero; wildcards such as
+   * {@code *}{@code /*} only ever get JSON, since that is what clients sending them expect.
+   */
+  public static boolean isAccepted(String accept) {
+    if (accept == null) {
+      return false;
+    }
+
+    for (String mediaRange : accept.split(",")) {
+      String[] parameters = mediaRange.split(";");
+      if (parameters[0].trim().equalsIgnoreCase(MEDIA_TYPE)) {
+        return quality(parameters) > 0;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the q parameter among the {@code parameters} of a media range, which is 1 if there is
+   * none and 0 if it cannot be read.
+   */
+  private static double quality(String[] parameters) {
+    for (int i = 1; i < parameters.length; i++) {
+      String parameter = parameters[i].trim();
+      int equals = parameter.indexOf('=');
+      if (equals < 0 || !parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+        continue;
+      }
+
+      try {
+        double quality = Double.parseDouble(parameter.substring(equals + 1).trim());
+        return quality >= 0 && quality <= 1 ? quality : 0;
+      } catch (NumberFormatException e) {
+        return 0;
+      }
+    }
+    return 1;
+  }
+
+  public static byte[] encodeTimeRanges(Collection<TimeRange> ranges) {
+    Output out = new Output(2 + 3 * ranges.size());
+    out.writeByte(TIME_RANGES);
+    out.writeVarint(ranges.size());
+    int previousStart = 0;
+    for (TimeRange range : ranges) {
+      out.writeSignedVarint(range.start() - previousStart);
+      out.writeDuration(range);
+      previousStart = range.start();
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Returns the time ranges that {@link #encodeTimeRanges} encoded as {@code bytes}.
+   *
+   * @throws IllegalArgumentException if {@code bytes} do not hold encoded time ranges
+   */
+  public static List<TimeRange> decodeTimeRanges(byte[] bytes) {
+    Input in = new Input(bytes);
+    in.expectKind(TIME_RANGES);
+    int count = in.readCount();
+    List<TimeRange> ranges = new ArrayList<>(count);
+    int start = 0;
+    for (int i = 0; i < count; i++) {
+      start += in.readSignedInt();
+      ranges.add(TimeRange.fromStartDuration(start, in.readInt()));
+    }
+    in.expectEnd();
+    return ranges;
+  }
+
+  public static byte[] encodeEvents(Collection<Event> events) {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+    List<int[]> attendees = new ArrayList<>(events.size());
+    for (Event event : events) {
+      attendees.add(dictionary.encodeAll(event.getAttendees()));
+    }
+
+    Output out = new Output(64 + 16 * events.size());
+    out.writeByte(EVENTS);
+    out.writeVarint(dictionary.size());
+    for (int id = 0; id < dictionary.size(); id++) {
+      out.writeString(dictionary.nameOf(id));
+    }
+
+    out.writeVarint(events.size());
+    int previousStart = 0;
+    int i = 0;
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      out.writeString(event.getTitle());
+      out.writeSignedVarint(when.start() - previousStart);
+      out.writeDuration(when);
+      previousStart = when.start();
+
+      int[] ids = attendees.get(i++);
+      out.writeVarint(ids.length);
+      int previousId = 0;
+      for (int id : ids) {
+        out.writeVarint(id - previousId);
+        previousId = id;
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Returns the events that {@link #encodeEvents} encoded as {@code bytes}.
+   *
+   * @throws IllegalArgumentException if {@code bytes} do not hold encoded events
+   */
+  public static List<Event> decodeEvents(byte[] bytes) {
+    Input in = new Input(bytes);
+    in.expectKind(EVENTS);
+    String[] names = new String[in.readCount()];
+    for (int id = 0; id < names.length; id++) {
+      names[id] = in.readString();
+    }
+
+    int count = in.readCount();
+    List<Event> events = new ArrayList<>(count);
+    int start = 0;
+    for (int i = 0; i < count; i++) {
+      String title = in.readString();
+      start += in.readSignedInt();
+      TimeRange when = TimeRange.fromStartDuration(start, in.readInt());
+
+      String[] attendees = new String[in.readCount()];
+      int id = 0;
+      for (int j = 0; j < attendees.length; j++) {
+        id += in.readInt();
+        if (id >= names.length) {
+          throw new IllegalArgumentException("Attendee id " + id + " is not in the name table");
+        }
+        attendees[j] = names[id];
+      }
+      events.add(new Event(title, when, Arrays.asList(attendees)));
+    }
+    in.expectEnd();
+    return events;
+  }
+
+  /**
+   * A growing array of encoded bytes.
+   */
+  private static final class Output {
+    private byte[] bytes;
+    private int size;
+
+    Output(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    void writeByte(int value) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      bytes[size++] = (byte) value;
+    }
+
+    void writeVarint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        writeByte((int) (value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      writeByte((int) value);
+    }
+
+    void writeSignedVarint(long value) {
+      writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes the duration of {@code range}. A negative one would be written as a ten byte number
+     * that no int can hold, so it is refused here rather than by whoever decodes it.
+     */
+    void writeDuration(TimeRange range) {
+      if (range.duration() < 0) {
+        throw new IllegalArgumentException("Time range " + range + " has a negative duration");
+      }
+      writeVarint(range.duration());
+    }
+
+    void writeString(String value) {
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeVarint(utf8.length);
+      if (size + utf8.length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + utf8.length));
+      }
+      System.arraycopy(utf8, 0, bytes, size, utf8.length);
+      size += utf8.length;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, size);
+    }
+  }
+
+  /**
+   * Reads encoded bytes from the front, checking that they hold what they should.
+   */
+  private static final class Input {
+    private final byte[] bytes;
+    private int position;
+
+    Input(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    void expectKind(int kind) {
+      if (position >= bytes.length || bytes[position++] != kind) {
+        throw new IllegalArgumentException("Not an encoding of the expected kind");
+      }
+    }
+
+    void expectEnd() {
+      if (position != bytes.length) {
+        throw new IllegalArgumentException((bytes.length - position) + " bytes left over");
+      }
+    }
+
+    long readVarint() {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        if (position >= bytes.length) {
+          throw new IllegalArgumentException("Encoding ends in the middle of a number");
+        }
+        byte b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalArgumentException("Number is longer than 64 bits");
+    }
+
+    int readInt() {
+      long value = readVarint();
+      if (value < 0 || value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Number " + value + " does not fit in an int");
+      }
+      return (int) value;
+    }
+
+    int readSignedInt() {
+      long zigzag = readVarint();
+      long value = (zigzag >>> 1) ^ -(zigzag & 1);
+      if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Number " + value + " does not fit in an int");
+      }
+      return (int) value;
+    }
+
+    /**
+     * Reads the length of a list. Every item takes at least one byte, so a length longer than what
+     * is left cannot be right, and is refused before anything is allocated for it.
+     */
+    int readCount() {
+      int count = readInt();
+      if (count > bytes.length - position) {
+        throw new IllegalArgumentException("Count " + count + " is longer than the encoding");
+      }
+      return count;
+    }
+
+    String readString() {
+      int length = readCount();
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+  }
+}
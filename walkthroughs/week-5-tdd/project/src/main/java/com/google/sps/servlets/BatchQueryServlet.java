@@ -0,0 +1,179 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryCache;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests with a JSON array holding the possible times for each of
+ * them, in the same order. The requests are evaluated in parallel on
+ * {@link Calendars#QUERY_SCHEDULER} against one snapshot of the calendar, and are answered from
+ * {@link Calendars#QUERY_CACHE} where they can be. The response is only written once every answer
+ * is ready, so a batch either succeeds as a whole or fails with nothing written.
+ */
+@WebServlet("/batch-query")
+public class BatchQueryServlet extends HttpServlet {
+  static final int MAX_BATCH_SIZE = 32;
+
+  private static final long DEADLINE_MILLIS = 2000;
+  private static final String RETRY_AFTER_SECONDS = "1";
+  private static final Type TIME_RANGES = new TypeToken<Collection<TimeRange>>() {}.getType();
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Gson gson = new Gson();
+
+    List<Collection<TimeRange>> answers;
+    try {
+      // Convert the JSON to an array of MeetingRequests.
+      MeetingRequest[] meetingRequests;
+      try {
+        meetingRequests = gson.fromJson(request.getReader(), MeetingRequest[].class);
+      } catch (JsonParseException e) {
+        throw new BadBatch(HttpServletResponse.SC_BAD_REQUEST, "requests must be a JSON array");
+      }
+
+      // Every request reads the same snapshot, so updates made while the batch runs do not mix
+      // versions within one response.
+      answers = answerAll(meetingRequests, Calendars.SERVICE.snapshot(), Calendars.QUERY_CACHE,
+          Calendars.QUERY_SCHEDULER, DEADLINE_MILLIS);
+    } catch (BadBatch e) {
+      if (e.status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+        response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+      }
+      response.sendError(e.status, e.getMessage());
+      return;
+    }
+
+    // Stream the times back as JSON, in the order the requests came in.
+    response.setContentType("application/json");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    writer.beginArray();
+    for (Collection<TimeRange> answer : answers) {
+      gson.toJson(answer, TIME_RANGES, writer);
+    }
+    writer.endArray();
+    writer.flush();
+  }
+
+  /**
+   * Answers every request in {@code meetingRequests} against {@code snapshot} and returns the
+   * answers in the same order. The whole batch is checked before any of it runs, and the answers
+   * are only returned once every one of them is ready within {@code deadlineMillis}.
+   *
+   * @throws BadBatch if the batch is missing, too big or holds a null request, if the scheduler has
+   *     no room for it, if it misses its deadline, or if any request in it fails
+   */
+  static List<Collection<TimeRange>> answerAll(MeetingRequest[] meetingRequests,
+      CalendarSnapshot snapshot, QueryCache cache, QueryScheduler scheduler, long deadlineMillis)
+      throws BadBatch {
+    if (meetingRequests == null) {
+      throw new BadBatch(HttpServletResponse.SC_BAD_REQUEST, "requests must be a JSON array");
+    }
+
+    if (meetingRequests.length > MAX_BATCH_SIZE) {
+      throw new BadBatch(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "a batch holds at most " + MAX_BATCH_SIZE + " requests");
+    }
+
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      if (meetingRequest == null) {
+        throw new BadBatch(HttpServletResponse.SC_BAD_REQUEST, "requests cannot be null");
+      }
+    }
+
+    AtomicReferenceArray<Collection<TimeRange>> answers =
+        new AtomicReferenceArray<>(meetingRequests.length);
+    List<Future<?>> tasks = new ArrayList<>(meetingRequests.length);
+    try {
+      for (int i = 0; i < meetingRequests.length; i++) {
+        int index = i;
+        MeetingRequest meetingRequest = meetingRequests[i];
+        tasks.add(scheduler.submit(
+            () -> answers.set(index, cache.query(snapshot, meetingRequest))));
+      }
+
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+      for (int i = 0; i < tasks.size(); i++) {
+        try {
+          tasks.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+          for (Future<?> task : tasks.subList(i, tasks.size())) {
+            scheduler.timeOut(task);
+          }
+          throw new BadBatch(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+              "batch missed its deadline");
+        }
+      }
+    } catch (RejectedExecutionException e) {
+      cancelAll(scheduler, tasks);
+      throw new BadBatch(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "too many queries");
+    } catch (ExecutionException e) {
+      cancelAll(scheduler, tasks);
+      throw new BadBatch(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+          "could not answer the batch");
+    } catch (InterruptedException e) {
+      cancelAll(scheduler, tasks);
+      Thread.currentThread().interrupt();
+      throw new BadBatch(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "interrupted");
+    }
+
+    List<Collection<TimeRange>> ordered = new ArrayList<>(answers.length());
+    for (int i = 0; i < answers.length(); i++) {
+      ordered.add(answers.get(i));
+    }
+    return ordered;
+  }
+
+  private static void cancelAll(QueryScheduler scheduler, List<Future<?>> tasks) {
+    for (Future<?> task : tasks) {
+      scheduler.cancel(task);
+    }
+  }
+
+  /**
+   * A batch that cannot be answered, and the status to turn it down with.
+   */
+  static final class BadBatch extends Exception {
+    final int status;
+
+    BadBatch(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarService;
+import com.google.sps.Event;
+import com.google.sps.Events;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MappedCalendar;
+import com.google.sps.QueryCache;
+import com.google.sps.QueryMetrics;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the calendar that every servlet reads and writes, the cache of answers to queries against
+ * it, the metrics of the queries the cache runs, and the threads that {@code /query} runs on. The
+ * calendar holds one day, which is the {@code sps.calendarDate} system property (YYYY-MM-DD) or
+ * else the day the server started. It starts with the events of the {@link MappedCalendar}
+ * snapshot file named by the {@code sps.calendarSnapshot} system property, if that file exists,
+ * and with the sample events otherwise. The metrics start out enabled when the
+ * {@code sps.queryMetrics} system property is true.
+ */
+final class Calendars {
+  static final LocalDate DATE =
+      LocalDate.parse(System.getProperty("sps.calendarDate", LocalDate.now().toString()));
+  static final Path SNAPSHOT_FILE = snapshotFile();
+  static final CalendarService SERVICE = new CalendarService(initialEvents());
+  static final QueryMetrics QUERY_METRICS =
+      new QueryMetrics(Boolean.getBoolean("sps.queryMetrics"));
+  static final QueryCache QUERY_CACHE =
+      new QueryCache(1024, new FindMeetingQuery(QUERY_METRICS));
+  static final QueryScheduler QUERY_SCHEDULER =
+      new QueryScheduler(Runtime.getRuntime().availableProcessors(), 64);
+
+  private static Path snapshotFile() {
+    String snapshotFile = System.getProperty("sps.calendarSnapshot");
+    return snapshotFile == null ? null : Paths.get(snapshotFile);
+  }
+
+  private static List<Event> initialEvents() {
+    if (SNAPSHOT_FILE == null || !Files.exists(SNAPSHOT_FILE)) {
+      return Arrays.asList(Events.events);
+    }
+
+    // Every event is about to be read, so checking the whole file first costs little extra. The
+    // events are then loaded into the calendar in one pass, without a version for each of them.
+    try {
+      MappedCalendar snapshot = MappedCalendar.open(SNAPSHOT_FILE);
+      snapshot.verify();
+      List<Event> events = new ArrayList<>(snapshot.getEventCount());
+      for (int i = 0; i < snapshot.getEventCount(); i++) {
+        events.add(snapshot.getEvent(i));
+      }
+      return events;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not load " + SNAPSHOT_FILE, e);
+    }
+  }
+
+  private Calendars() {
+    // Disallow instances.
+  }
+}
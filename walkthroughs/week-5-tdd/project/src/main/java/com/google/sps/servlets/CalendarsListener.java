@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.MappedCalendar;
+import java.io.IOException;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Stops the threads that {@link Calendars} shares between servlets when the web app stops. No one
+ * servlet owns them, so none of them may shut them down when it is destroyed. If the calendar has
+ * a snapshot file, the events are also written to it, so that the next start can load them from
+ * there.
+ */
+@WebListener
+public class CalendarsListener implements ServletContextListener {
+  @Override
+  public void contextInitialized(ServletContextEvent event) {}
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {
+    Calendars.QUERY_SCHEDULER.shutdown();
+    if (Calendars.SNAPSHOT_FILE != null) {
+      try {
+        MappedCalendar.write(Calendars.SERVICE.snapshot().getEvents(), Calendars.SNAPSHOT_FILE);
+      } catch (IOException e) {
+        event.getServletContext().log("Could not write " + Calendars.SNAPSHOT_FILE, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Changes the shared calendar while queries keep running against it. POST adds an event and
+ * responds with its id, PUT moves the event with {@code ?id=} to {@code ?start=&duration=}, and
+ * DELETE removes the event with {@code ?id=}.
+ */
+@WebServlet("/event")
+public class EventServlet extends HttpServlet {
+  /**
+   * The JSON shape of a new event.
+   */
+  private static final class NewEvent {
+    String title;
+    int start;
+    int duration;
+    List<String> attendees;
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Gson gson = new Gson();
+    NewEvent newEvent = gson.fromJson(request.getReader(), NewEvent.class);
+    if (newEvent == null || newEvent.title == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "title is required");
+      return;
+    }
+
+    if (newEvent.duration < 0) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "duration cannot be negative");
+      return;
+    }
+
+    List<String> attendees = newEvent.attendees == null
+        ? Collections.<String>emptyList()
+        : new ArrayList<>(newEvent.attendees);
+    if (attendees.contains(null)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "attendees cannot be null");
+      return;
+    }
+
+    Event event = new Event(newEvent.title,
+        TimeRange.fromStartDuration(newEvent.start, newEvent.duration), attendees);
+    long eventId = Calendars.SERVICE.addEvent(event);
+
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(Collections.singletonMap("id", eventId)));
+  }
+
+  @Override
+  public void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    try {
+      long eventId = Long.parseLong(request.getParameter("id"));
+      int duration = Integer.parseInt(request.getParameter("duration"));
+      if (duration < 0) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "duration cannot be negative");
+        return;
+      }
+
+      TimeRange when =
+          TimeRange.fromStartDuration(Integer.parseInt(request.getParameter("start")), duration);
+      if (!Calendars.SERVICE.moveEvent(eventId, when)) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      }
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "id, start and duration are required");
+    }
+  }
+
+  @Override
+  public void doDelete(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    try {
+      if (!Calendars.SERVICE.removeEvent(Long.parseLong(request.getParameter("id")))) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+      }
+    } catch (NumberFormatException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "id is required");
+    }
+  }
+}
@@ -14,23 +14,131 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.CalendarChanges;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.WireFormat;
 import com.google.gson.Gson;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Serves the events of the shared calendar as JSON. The JSON of the latest version is only built
+ * and gzipped once, and carries an ETag so that a client that already has it gets a 304 instead.
+ * With {@code ?since=<version>}, only the {@link CalendarChanges} since that version are sent; the
+ * version to ask with next time is in the {@code Calendar-Version} header of every response.
+ * Clients that accept it get the full list of events in the {@link WireFormat} instead of JSON.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  /**
+   * The response for one version of the calendar, ready to be sent as it is.
+   */
+  private static final class Payload {
+    final long version;
+    final String tag;
+    final byte[] json;
+    final byte[] gzippedJson;
+    final byte[] binary;
+
+    Payload(long version, String tag, byte[] json, byte[] gzippedJson, byte[] binary) {
+      this.version = version;
+      this.tag = tag;
+      this.json = json;
+      this.gzippedJson = gzippedJson;
+      this.binary = binary;
+    }
+  }
+
+  // Versions start over when the server does, so ETags also name the server's start.
+  private final String epoch = Long.toHexString(System.currentTimeMillis());
+  private volatile Payload payload;
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    String since = request.getParameter("since");
+    if (since != null) {
+      CalendarChanges changes;
+      try {
+        changes = Calendars.SERVICE.changesSince(Long.parseLong(since));
+      } catch (NumberFormatException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "since must be a version");
+        return;
+      }
+      response.setHeader("Calendar-Version", Long.toString(changes.getVersion()));
+      response.setContentType("application/json");
+      response.getWriter().println(new Gson().toJson(changes));
+      return;
+    }
+
+    // The binary encoding is a different representation, so it gets an ETag of its own.
+    Payload current = payloadOf(Calendars.SERVICE.snapshot());
+    boolean binary = WireFormat.isAccepted(request.getHeader("Accept"));
+    String etag = "\"" + current.tag + (binary ? "-binary" : "") + "\"";
+    response.setHeader("ETag", etag);
+    response.setHeader("Calendar-Version", Long.toString(current.version));
+    response.setHeader("Vary", "Accept, Accept-Encoding");
+    if (matches(request.getHeader("If-None-Match"), etag)) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    String acceptEncoding = request.getHeader("Accept-Encoding");
+    byte[] body;
+    if (binary) {
+      response.setContentType(WireFormat.MEDIA_TYPE);
+      body = current.binary;
+    } else {
+      response.setContentType("application/json");
+      response.setCharacterEncoding("UTF-8");
+      body = current.json;
+      if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+        response.setHeader("Content-Encoding", "gzip");
+        body = current.gzippedJson;
+      }
+    }
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Returns the response for {@code snapshot}, building it only if the last one was for another
+   * version.
+   */
+  private Payload payloadOf(CalendarSnapshot snapshot) throws IOException {
+    Payload current = payload;
+    if (current != null && current.version == snapshot.getVersion()) {
+      return current;
+    }
+
+    // Two requests may both build the same version; either result is fine to keep.
+    byte[] json = new Gson().toJson(snapshot.getEvents()).getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+      out.write(json);
+    }
+    current = new Payload(snapshot.getVersion(), epoch + "-" + snapshot.getVersion(), json,
+        gzipped.toByteArray(), WireFormat.encodeEvents(snapshot.getEvents()));
+    payload = current;
+    return current;
+  }
+
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Registers the standing groups that {@code /query?group=} can name. POST registers a JSON
+ * {@code {"name": ..., "members": [...]}}, replacing any group with that name, and DELETE
+ * unregisters the group with {@code ?name=}.
+ */
+@WebServlet("/group")
+public class GroupServlet extends HttpServlet {
+  /**
+   * The JSON shape of a new group.
+   */
+  private static final class NewGroup {
+    String name;
+    List<String> members;
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    NewGroup newGroup = new Gson().fromJson(request.getReader(), NewGroup.class);
+    if (newGroup == null || newGroup.name == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "name is required");
+      return;
+    }
+
+    List<String> members = newGroup.members == null
+        ? Collections.<String>emptyList()
+        : new ArrayList<>(newGroup.members);
+    if (members.contains(null)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "members cannot be null");
+      return;
+    }
+
+    Calendars.SERVICE.registerGroup(newGroup.name, members);
+  }
+
+  @Override
+  public void doDelete(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    String name = request.getParameter("name");
+    if (name == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "name is required");
+      return;
+    }
+
+    if (!Calendars.SERVICE.unregisterGroup(name)) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.AvailabilityHeatmap;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Responds with a JSON array holding, for each bucket of the day, how many of the people named by
+ * {@code ?attendee=} are free for the whole bucket. Buckets are {@code ?bucket=} minutes long, 15
+ * by default. This draws the availability of a group in one request instead of one query for each
+ * subset of the group.
+ */
+@WebServlet("/heatmap")
+public class HeatmapServlet extends HttpServlet {
+  private static final int DEFAULT_BUCKET_MINUTES = 15;
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String[] attendeeValues = request.getParameterValues("attendee");
+    List<String> attendees = attendeeValues == null
+        ? Collections.<String>emptyList()
+        : Arrays.asList(attendeeValues);
+
+    int[] freeCounts;
+    try {
+      String bucket = request.getParameter("bucket");
+      freeCounts = AvailabilityHeatmap.freeCounts(Calendars.SERVICE.snapshot(), attendees,
+          bucket == null ? DEFAULT_BUCKET_MINUTES : Integer.parseInt(bucket));
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "bucket must be a positive number");
+      return;
+    }
+
+    response.setContentType("application/json");
+    response.getWriter().println(new Gson().toJson(freeCounts));
+  }
+}
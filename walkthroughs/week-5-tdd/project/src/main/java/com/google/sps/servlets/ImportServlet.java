@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.IcsImporter;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Loads the events of the shared calendar's day, {@link Calendars#DATE}, from an iCalendar (.ics)
+ * export in the request body. The calendar only holds that one day, so a {@code ?date=YYYY-MM-DD}
+ * naming any other day is turned down rather than mixed into it. Posting a newer export only
+ * applies what changed. Responds with what the import did and how many rows per second it read.
+ */
+@WebServlet("/import")
+public class ImportServlet extends HttpServlet {
+  private final IcsImporter importer = new IcsImporter(Calendars.SERVICE, Calendars.DATE);
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String dateParameter = request.getParameter("date");
+    if (dateParameter != null) {
+      LocalDate date = null;
+      try {
+        date = LocalDate.parse(dateParameter);
+      } catch (DateTimeParseException e) {
+        // Reported below.
+      }
+      if (date == null) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "date must be YYYY-MM-DD");
+        return;
+      }
+      if (!date.equals(Calendars.DATE)) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+            "the calendar only holds " + Calendars.DATE);
+        return;
+      }
+    }
+
+    IcsImporter.Result result = importer.importFrom(request.getReader());
+
+    Map<String, Number> report = new LinkedHashMap<>();
+    report.put("rows", result.getRows());
+    report.put("added", result.getAdded());
+    report.put("updated", result.getUpdated());
+    report.put("removed", result.getRemoved());
+    report.put("unchanged", result.getUnchanged());
+    report.put("skipped", result.getSkipped());
+    report.put("elapsedMillis", result.getElapsedMillis());
+    report.put("rowsPerSecond", result.getRowsPerSecond());
+
+    response.setContentType("application/json");
+    response.getWriter().println(new Gson().toJson(report));
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.LogLinearHistogram;
+import com.google.sps.QueryMetrics;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Reports where the time of uncached queries goes as JSON. GET returns the count, mean, max and
+ * percentiles of every phase histogram, the number of retries, and how busy the query scheduler
+ * is: its queue depth, running queries, and how many queries it rejected or timed out. POST with
+ * {@code ?enabled=} turns recording of the histograms on or off.
+ */
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+  private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    QueryMetrics metrics = Calendars.QUERY_METRICS;
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("enabled", metrics.isEnabled());
+    report.put("retries", metrics.getRetryCount());
+    report.put("queryNanos", summarize(metrics.getQueryNanos()));
+    report.put("filterNanos", summarize(metrics.getFilterNanos()));
+    report.put("sortNanos", summarize(metrics.getSortNanos()));
+    report.put("sweepNanos", summarize(metrics.getSweepNanos()));
+    report.put("eventsScanned", summarize(metrics.getEventsScanned()));
+    report.put("intervalsKept", summarize(metrics.getIntervalsKept()));
+
+    QueryScheduler scheduler = Calendars.QUERY_SCHEDULER;
+    Map<String, Number> schedulerStats = new LinkedHashMap<>();
+    schedulerStats.put("queueDepth", scheduler.getQueueDepth());
+    schedulerStats.put("queueCapacity", scheduler.getQueueCapacity());
+    schedulerStats.put("active", scheduler.getActiveCount());
+    schedulerStats.put("completed", scheduler.getCompletedCount());
+    schedulerStats.put("rejected", scheduler.getRejectedCount());
+    schedulerStats.put("timedOut", scheduler.getTimedOutCount());
+    report.put("scheduler", schedulerStats);
+
+    response.setContentType("application/json");
+    response.getWriter().println(new Gson().toJson(report));
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    String enabled = request.getParameter("enabled");
+    if (enabled == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "enabled is required");
+      return;
+    }
+    Calendars.QUERY_METRICS.setEnabled(Boolean.parseBoolean(enabled));
+  }
+
+  private static Map<String, Number> summarize(LogLinearHistogram histogram) {
+    Map<String, Number> summary = new LinkedHashMap<>();
+    summary.put("count", histogram.getCount());
+    summary.put("mean", histogram.getMean());
+    summary.put("max", histogram.getMax());
+    for (int i = 0; i < PERCENTILES.length; i++) {
+      summary.put(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+    }
+    return summary;
+  }
+}
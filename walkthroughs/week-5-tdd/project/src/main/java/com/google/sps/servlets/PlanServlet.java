@@ -0,0 +1,125 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.MeetingPlanner;
+import com.google.sps.MeetingRequest;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Places a JSON array of meeting requests on the calendar together, so that no two meetings that
+ * share an attendee overlap. Responds with the chosen time of each meeting, null for the ones that
+ * did not fit, and whether the planner finished within {@code ?budgetMillis=}. The planner runs on
+ * the request thread, so both the number of meetings and the budget are capped.
+ */
+@WebServlet("/plan")
+public class PlanServlet extends HttpServlet {
+  static final int MAX_PLAN_SIZE = 32;
+  static final long MAX_BUDGET_MILLIS = 2000;
+
+  private static final long DEFAULT_BUDGET_MILLIS = 200;
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Gson gson = new Gson();
+
+    MeetingRequest[] meetingRequests;
+    long budgetMillis;
+    try {
+      // Convert the JSON to an array of MeetingRequests.
+      try {
+        meetingRequests = gson.fromJson(request.getReader(), MeetingRequest[].class);
+      } catch (JsonParseException e) {
+        throw new BadPlan(HttpServletResponse.SC_BAD_REQUEST, "requests must be a JSON array");
+      }
+      if (meetingRequests == null) {
+        meetingRequests = new MeetingRequest[0];
+      }
+      checkRequests(meetingRequests);
+      budgetMillis = budgetMillisOf(request.getParameter("budgetMillis"));
+    } catch (BadPlan e) {
+      response.sendError(e.status, e.getMessage());
+      return;
+    }
+
+    MeetingPlanner planner = new MeetingPlanner(Calendars.SERVICE.snapshot());
+    String jsonResponse =
+        gson.toJson(planner.plan(Arrays.asList(meetingRequests), budgetMillis));
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(jsonResponse);
+  }
+
+  /**
+   * Checks that {@code meetingRequests} can be planned together.
+   *
+   * @throws BadPlan if there are more than {@link #MAX_PLAN_SIZE} of them or one of them is null
+   */
+  static void checkRequests(MeetingRequest[] meetingRequests) throws BadPlan {
+    if (meetingRequests.length > MAX_PLAN_SIZE) {
+      throw new BadPlan(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "a plan holds at most " + MAX_PLAN_SIZE + " requests");
+    }
+
+    for (MeetingRequest meetingRequest : meetingRequests) {
+      if (meetingRequest == null) {
+        throw new BadPlan(HttpServletResponse.SC_BAD_REQUEST, "requests cannot be null");
+      }
+    }
+  }
+
+  /**
+   * Returns the time budget that {@code budget}, the {@code ?budgetMillis=} parameter, asks for,
+   * cut down to {@link #MAX_BUDGET_MILLIS}.
+   *
+   * @throws BadPlan if {@code budget} is not a number or is negative
+   */
+  static long budgetMillisOf(String budget) throws BadPlan {
+    if (budget == null) {
+      return DEFAULT_BUDGET_MILLIS;
+    }
+
+    long budgetMillis;
+    try {
+      budgetMillis = Long.parseLong(budget);
+    } catch (NumberFormatException e) {
+      throw new BadPlan(HttpServletResponse.SC_BAD_REQUEST, "budgetMillis must be a number");
+    }
+    if (budgetMillis < 0) {
+      throw new BadPlan(HttpServletResponse.SC_BAD_REQUEST, "budgetMillis cannot be negative");
+    }
+    return Math.min(budgetMillis, MAX_BUDGET_MILLIS);
+  }
+
+  /**
+   * A plan that cannot be made, and the status to turn it down with.
+   */
+  static final class BadPlan extends Exception {
+    final int status;
+
+    BadPlan(int status, String message) {
+      super(message);
+      this.status = status;
+    }
+  }
+}
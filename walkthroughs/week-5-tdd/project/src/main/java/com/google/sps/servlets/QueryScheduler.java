@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs queries on a fixed number of threads with a bounded queue in front of them, so a burst of
+ * expensive queries waits here instead of holding every request thread of the container. Work that
+ * does not fit in the queue is refused straight away rather than making everyone wait longer.
+ */
+final class QueryScheduler {
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong timedOut = new AtomicLong();
+
+  /**
+   * Creates a scheduler with {@code threads} threads that queues up to {@code queueCapacity}
+   * queries.
+   */
+  QueryScheduler(int threads, int queueCapacity) {
+    AtomicInteger threadCount = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "query-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Queues {@code task} to run on one of the scheduler's threads.
+   *
+   * @throws RejectedExecutionException if the queue is full or the scheduler has been shut down
+   */
+  Future<?> submit(Runnable task) {
+    try {
+      return executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      throw e;
+    }
+  }
+
+  /**
+   * Gives up on {@code task}, which missed its deadline, and takes it out of the queue if it has
+   * not started yet. A task that is already running is left to finish.
+   */
+  void timeOut(Future<?> task) {
+    timedOut.incrementAndGet();
+    if (task != null) {
+      cancel(task);
+    }
+  }
+
+  /**
+   * Takes {@code task} out of the queue if it has not started yet, because its answer is no longer
+   * needed. A task that is already running is left to finish.
+   */
+  void cancel(Future<?> task) {
+    task.cancel(false);
+    executor.remove((Runnable) task);
+  }
+
+  int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  long getCompletedCount() {
+    return executor.getCompletedTaskCount();
+  }
+
+  long getRejectedCount() {
+    return rejected.get();
+  }
+
+  long getTimedOutCount() {
+    return timedOut.get();
+  }
+
+  void shutdown() {
+    executor.shutdown();
+  }
+}
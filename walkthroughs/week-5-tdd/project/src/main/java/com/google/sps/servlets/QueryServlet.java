@@ -14,38 +14,260 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.CalendarSnapshot;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.SlotScorer;
 import com.google.sps.TimeRange;
+import com.google.sps.WireFormat;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Answers a JSON meeting request with the possible meeting times, as JSON or, for clients that
+ * accept it and queries that answer with plain times, in the {@link WireFormat}. Queries run on
+ * {@link Calendars#QUERY_SCHEDULER} rather than on the container's request threads. When its queue
+ * is full, or a query has not been answered within its deadline, the servlet responds with 503 and
+ * a Retry-After header instead.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
+  private static final int DEFAULT_LIMIT = 5;
+  static final int MAX_LIMIT = 100;
+  private static final long DEADLINE_MILLIS = 2000;
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  /** The scorers that {@code ?rankBy=} can name. */
+  private static final Map<String, SlotScorer> SCORERS = new HashMap<>();
+
+  static {
+    SCORERS.put("earliestStart", SlotScorer.EARLIEST_START);
+    SCORERS.put("leastFragmentation", SlotScorer.LEAST_FRAGMENTATION);
+    SCORERS.put("workingHours", SlotScorer.workingHours(
+        TimeRange.getTimeInMinutes(9, 0), TimeRange.getTimeInMinutes(17, 0)));
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     Gson gson = new Gson();
 
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    } catch (JsonParseException e) {
+      meetingRequest = null;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "a meeting request is required");
+      return;
+    }
+    MeetingRequest query = meetingRequest;
+    // The request object may be recycled once the deadline completes it, so nothing is read from
+    // it on the scheduler's threads.
+    Options options = new Options(request);
+
+    // Hand the query to the scheduler and free this thread. Whichever comes first of the answer and
+    // the deadline sends the response; the other one is dropped.
+    AsyncContext asyncContext = request.startAsync();
+    asyncContext.setTimeout(DEADLINE_MILLIS);
+    AtomicBoolean answered = new AtomicBoolean();
+    AtomicReference<Future<?>> task = new AtomicReference<>();
+    asyncContext.addListener(new AsyncListener() {
+      @Override
+      public void onTimeout(AsyncEvent event) throws IOException {
+        if (answered.compareAndSet(false, true)) {
+          Calendars.QUERY_SCHEDULER.timeOut(task.get());
+          sendOverloaded(response, "query missed its deadline");
+          asyncContext.complete();
+        }
+      }
+
+      @Override
+      public void onComplete(AsyncEvent event) {}
+
+      @Override
+      public void onError(AsyncEvent event) {}
+
+      @Override
+      public void onStartAsync(AsyncEvent event) {}
+    });
+
+    try {
+      task.set(Calendars.QUERY_SCHEDULER.submit(
+          () -> answer(asyncContext, response, query, options, answered)));
+    } catch (RejectedExecutionException e) {
+      if (answered.compareAndSet(false, true)) {
+        sendOverloaded(response, "too many queries");
+        asyncContext.complete();
+      }
+    }
+  }
+
+  /**
+   * Finds the answer to {@code meetingRequest} and sends it, unless the deadline has been answered
+   * first.
+   */
+  private void answer(AsyncContext asyncContext, HttpServletResponse response,
+      MeetingRequest meetingRequest, Options options, AtomicBoolean answered) {
+    if (answered.get()) {
+      return;
+    }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    boolean binary = options.binary;
+    byte[] body = null;
+    int status = HttpServletResponse.SC_OK;
+    String message = null;
+    try {
+      Collection<?> answer = findAnswer(meetingRequest, options);
+      if (binary) {
+        @SuppressWarnings("unchecked")
+        Collection<TimeRange> times = (Collection<TimeRange>) answer;
+        body = WireFormat.encodeTimeRanges(times);
+      } else {
+        // Convert the times to JSON
+        body = (new Gson().toJson(answer) + "\n").getBytes(StandardCharsets.UTF_8);
+      }
+    } catch (BadQuery e) {
+      status = e.status;
+      message = e.getMessage();
+    } catch (RuntimeException e) {
+      // The scheduler's future would swallow this, leaving the client to wait for the deadline.
+      log("Could not answer a query", e);
+      status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+      message = "could not answer the query";
+    }
+
+    if (!answered.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      if (status == HttpServletResponse.SC_OK) {
+        // Send the answer back as the response
+        response.setHeader("Vary", "Accept");
+        if (binary) {
+          response.setContentType(WireFormat.MEDIA_TYPE);
+        } else {
+          response.setContentType("application/json");
+          response.setCharacterEncoding("UTF-8");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+      } else {
+        response.sendError(status, message);
+      }
+    } catch (IOException e) {
+      log("Could not send the answer to a query", e);
+    } finally {
+      asyncContext.complete();
+    }
+  }
+
+  private static Collection<?> findAnswer(MeetingRequest meetingRequest, Options options)
+      throws BadQuery {
+    // Find the possible meeting times. With ?maximizeOptional=true, each time also lists the
+    // optional attendees who can come, and the times that suit the most of them are returned.
+    // With ?rankBy=, only the ?limit= best meeting times are returned, best first. With
+    // ?quorum=k, the times when any k of the attendees can come are returned, each listing who can.
+    // With ?group=, every member of that standing group is added to the attendees.
+    // Plain queries are answered from the cache while nobody they name has changed.
+    CalendarSnapshot snapshot = Calendars.SERVICE.snapshot();
+    String rankBy = options.rankBy;
+    String quorum = options.quorum;
+    String group = options.group;
+    if (group != null) {
+      if (snapshot.getGroup(group) == null) {
+        throw new BadQuery(HttpServletResponse.SC_NOT_FOUND, "no standing group " + group);
+      }
+      return new FindMeetingQuery().queryGroup(snapshot, group, meetingRequest);
+    } else if (quorum != null) {
+      try {
+        return new FindMeetingQuery().queryQuorum(snapshot, meetingRequest.getAttendees(),
+            Integer.parseInt(quorum), meetingRequest.getDuration());
+      } catch (IllegalArgumentException e) {
+        throw new BadQuery(HttpServletResponse.SC_BAD_REQUEST, "quorum must be a count");
+      }
+    } else if (options.maximizeOptional) {
+      return new FindMeetingQuery().queryMaximizingOptional(snapshot, meetingRequest);
+    } else if (rankBy != null) {
+      SlotScorer scorer = SCORERS.get(rankBy);
+      if (scorer == null) {
+        throw new BadQuery(HttpServletResponse.SC_BAD_REQUEST, "unknown rankBy " + rankBy);
+      }
+      String limitParameter = options.limit;
+      int limit;
+      try {
+        limit = limitParameter == null ? DEFAULT_LIMIT : Integer.parseInt(limitParameter);
+      } catch (NumberFormatException e) {
+        throw new BadQuery(HttpServletResponse.SC_BAD_REQUEST, "limit must be a count");
+      }
+      if (limit < 0 || limit > MAX_LIMIT) {
+        throw new BadQuery(HttpServletResponse.SC_BAD_REQUEST,
+            "limit must be a count of at most " + MAX_LIMIT);
+      }
+      return new FindMeetingQuery().queryTopRanked(snapshot, meetingRequest, scorer, limit);
+    } else {
+      return Calendars.QUERY_CACHE.query(snapshot, meetingRequest);
+    }
+  }
+
+  private static void sendOverloaded(HttpServletResponse response, String message)
+      throws IOException {
+    response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+  }
+
+  /**
+   * What a query asks for besides its meeting request, read off its headers and parameters while
+   * the container's thread still owns the request.
+   */
+  private static final class Options {
+    final String group;
+    final String quorum;
+    final boolean maximizeOptional;
+    final String rankBy;
+    final String limit;
+    // Answers that are plain times can be sent in the binary wire format, if the client takes it.
+    final boolean binary;
+
+    Options(HttpServletRequest request) {
+      group = request.getParameter("group");
+      quorum = request.getParameter("quorum");
+      maximizeOptional = Boolean.parseBoolean(request.getParameter("maximizeOptional"));
+      rankBy = request.getParameter("rankBy");
+      limit = request.getParameter("limit");
+      binary = WireFormat.isAccepted(request.getHeader("Accept"))
+          && quorum == null
+          && !maximizeOptional;
+    }
+  }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+  /**
+   * A query that cannot be answered, and the status to turn it down with.
+   */
+  private static final class BadQuery extends Exception {
+    final int status;
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    BadQuery(int status, String message) {
+      super(message);
+      this.status = status;
+    }
   }
 }
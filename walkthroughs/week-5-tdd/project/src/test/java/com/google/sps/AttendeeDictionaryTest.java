@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void dictionaryHandsOutDenseIds() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    assertArrayEquals(new int[] {0, 1}, dictionary.encodeAll(Arrays.asList(PERSON_B, PERSON_A)));
+    assertEquals(0, dictionary.encode(PERSON_B));
+    assertEquals(PERSON_A, dictionary.nameOf(1));
+    assertEquals(AttendeeDictionary.NOT_FOUND, dictionary.lookup(PERSON_C));
+
+    // Unknown names are left out and repeated names only appear once.
+    assertArrayEquals(new int[] {0, 1},
+        dictionary.lookupAll(Arrays.asList(PERSON_C, PERSON_A, PERSON_B, PERSON_A)));
+    assertEquals(2, dictionary.size());
+  }
+}
@@ -0,0 +1,112 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityHeatmapTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int BUCKET_1_HOUR = 60;
+
+  @Test
+  public void hourlyBuckets() {
+    // B's events overlap, but B is only one person.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            Arrays.asList(PERSON_B)));
+
+    int[] actual = AvailabilityHeatmap.freeCounts(new AttendeeIndex(events),
+        Arrays.asList(PERSON_A, PERSON_B, PERSON_C, PERSON_A), BUCKET_1_HOUR);
+
+    int[] expected = new int[24];
+    Arrays.fill(expected, 3);
+    expected[8] = 1;
+    expected[9] = 2;
+
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void partlyBusyBucketIsNotFree() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0830AM - 1, TIME_0830AM + 1, false),
+            Arrays.asList(PERSON_A)));
+
+    int[] actual = AvailabilityHeatmap.freeCounts(
+        new AttendeeIndex(events), Arrays.asList(PERSON_A), TIME_0830AM);
+
+    // The day is cut into 0:00 to 8:30, 8:30 to 17:00 and 17:00 to midnight.
+    assertArrayEquals(new int[] {0, 0, 1}, actual);
+  }
+
+  @Test
+  public void bucketLongerThanTheDayIsTheWholeDay() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)));
+
+    for (int bucketMinutes : new int[] {TimeRange.WHOLE_DAY.duration(), Integer.MAX_VALUE - 1000,
+        Integer.MAX_VALUE}) {
+      assertEquals(1, AvailabilityHeatmap.bucketCount(bucketMinutes));
+      assertArrayEquals(new int[] {1}, AvailabilityHeatmap.freeCounts(
+          new AttendeeIndex(events), Arrays.asList(PERSON_A, PERSON_B), bucketMinutes));
+    }
+  }
+
+  @Test
+  public void minuteBucketsMatchEventsOnSampleCalendar() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    Set<String> attendees = new HashSet<>();
+    for (Event event : events) {
+      attendees.addAll(event.getAttendees());
+    }
+
+    int[] actual = AvailabilityHeatmap.freeCounts(new AttendeeIndex(events), attendees, 1);
+
+    assertEquals(TimeRange.WHOLE_DAY.duration(), actual.length);
+    for (int minute = 0; minute < actual.length; minute++) {
+      Set<String> busy = new HashSet<>();
+      for (Event event : events) {
+        if (event.getWhen().contains(minute)) {
+          busy.addAll(event.getAttendees());
+        }
+      }
+      assertEquals(attendees.size() - busy.size(), actual[minute]);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusyTimeMergerTest {
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  @Test
+  public void joinsOverlappingNestedAndTouchingTimes() {
+    // List 1  : |-----|     |-----|
+    // List 2  : |--|  |--|
+    // List 3  :                   |   (empty)
+    // Merged  : |--------|  |-----|
+    List<List<TimeRange>> busyTimes = Arrays.asList(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false)),
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false)),
+        Arrays.asList(TimeRange.fromStartDuration(TIME_1100AM, 0)));
+
+    int[] expected = {TIME_0800AM, TIME_0930AM, TIME_1000AM, TIME_1100AM};
+
+    assertArrayEquals(expected, new BusyTimeMerger().merge(busyTimes));
+    assertArrayEquals(expected, BusyTimeMerger.mergeTwo(
+        BusyTimeMerger.heapMerge(busyTimes.subList(0, 1), 2),
+        BusyTimeMerger.heapMerge(busyTimes.subList(1, 3), 3)));
+    assertArrayEquals(new int[0], new BusyTimeMerger().merge(Collections.emptyList()));
+  }
+
+  @Test
+  public void largeRequestsMatchQuery() {
+    // Enough attendees and intervals to split the merge up several times.
+    Random random = new Random(20200101L);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.end() + 60) - 30;
+      int duration = random.nextInt(8) == 0 ? 0 : 5 + random.nextInt(90);
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList("Person " + random.nextInt(400), "Person " + random.nextInt(400))));
+    }
+    AttendeeIndex index = new AttendeeIndex(events);
+    BusyTimeMerger merger = new BusyTimeMerger(new ForkJoinPool(4), 64);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (int attendees : new int[] {5, 40, 300}) {
+      List<String> people = new ArrayList<>();
+      for (int i = 0; i < attendees; i++) {
+        people.add("Person " + random.nextInt(400));
+      }
+      for (int duration : new int[] {1, 5, 15}) {
+        MeetingRequest request = new MeetingRequest(people, duration);
+        assertEquals(query.query(events, request), merger.query(index, request));
+        assertEquals(query.query(events, request), query.query(index, request));
+      }
+    }
+  }
+}
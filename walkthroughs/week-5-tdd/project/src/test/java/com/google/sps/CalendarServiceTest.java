@@ -0,0 +1,343 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarServiceTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void addRemoveAndMoveEvents() {
+    CalendarService service = new CalendarService();
+    long first = service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_B)));
+    long second = service.addEvent(new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+                     TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES)),
+        service.snapshot().getBusyTimes(PERSON_A));
+
+    assertTrue(service.moveEvent(first, TimeRange.fromStartDuration(TIME_1000AM, 60)));
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_1000AM, 60)),
+        service.snapshot().getBusyTimes(PERSON_B));
+    assertEquals("Event 1", service.snapshot().getEvent(first).getTitle());
+
+    assertTrue(service.removeEvent(second));
+    assertFalse(service.removeEvent(second));
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_1000AM, 60)),
+        service.snapshot().getBusyTimes(PERSON_A));
+    assertEquals(1, service.snapshot().getEvents().size());
+  }
+
+  @Test
+  public void initialEventsAreLoadedAsOneVersion() {
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+    CalendarService service = new CalendarService(events);
+
+    assertEquals(1, service.snapshot().getVersion());
+    assertEquals(events, new ArrayList<>(service.snapshot().getEvents()));
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES)),
+        service.snapshot().getBusyTimes(PERSON_A));
+
+    // The initial events were never changes, so a client that has none of them starts over.
+    CalendarChanges changes = service.changesSince(0);
+    assertTrue(changes.isReset());
+    assertEquals(service.snapshot().getEventsById(), changes.getAdded());
+
+    long eventId = service.addEvent(new Event("Event 4",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_B)));
+    // The initial events took the ids before it, so the last of them is the one just before it.
+    assertEquals(events.size() + 1, eventId);
+    assertTrue(service.removeEvent(eventId - 1));
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES)),
+        service.snapshot().getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void snapshotsDoNotChange() {
+    CalendarService service = new CalendarService();
+    long eventId = service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+    CalendarSnapshot before = service.snapshot();
+
+    service.removeEvent(eventId);
+
+    assertTrue(service.snapshot().getVersion() > before.getVersion());
+    assertEquals(Collections.emptyList(), service.snapshot().getBusyTimes(PERSON_A));
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES)),
+        before.getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void busyTimesAreListedOnceWhileTheyDoNotChange() {
+    CalendarService service = new CalendarService();
+    service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+    CalendarSnapshot before = service.snapshot();
+    List<TimeRange> busyTimes = before.getBusyTimes(PERSON_A);
+
+    // Only Person B changes, so every snapshot shares Person A's list.
+    service.addEvent(new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_B)));
+
+    assertSame(busyTimes, before.getBusyTimes(PERSON_A));
+    assertSame(busyTimes, service.snapshot().getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void queryMatchesIndex() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    CalendarService service = new CalendarService(events);
+    AttendeeIndex index = new AttendeeIndex(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (Event event : events) {
+      for (String attendee : event.getAttendees()) {
+        // Ranges with the same start may come in any order, so compare them as sets.
+        assertEquals(new HashSet<>(index.getBusyTimes(attendee)),
+            new HashSet<>(service.snapshot().getBusyTimes(attendee)));
+      }
+      MeetingRequest request = new MeetingRequest(event.getAttendees(), DURATION_30_MINUTES);
+      assertEquals(query.query(index, request), query.query(service.snapshot(), request));
+    }
+  }
+
+  @Test
+  public void batchUpdate() {
+    CalendarService service = new CalendarService();
+    long eventId = service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+
+    List<Long> addedIds = service.update(Arrays.asList(eventId), Arrays.asList(
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B))));
+
+    assertEquals(2, addedIds.size());
+    assertNull(service.snapshot().getEvent(eventId));
+    assertEquals("Event 3", service.snapshot().getEvent(addedIds.get(1)).getTitle());
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES)),
+        service.snapshot().getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void rejectsEventsThatEndBeforeTheyStart() {
+    CalendarService service = new CalendarService();
+    TimeRange backwards = TimeRange.fromStartEnd(TIME_0900AM, TIME_0800AM, false);
+    long eventId = service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+
+    try {
+      service.addEvent(new Event("Event 2", backwards, Arrays.asList(PERSON_A)));
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+
+    try {
+      service.moveEvent(eventId, backwards);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES)),
+        service.snapshot().getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void rejectsNullNames() {
+    CalendarService service = new CalendarService();
+
+    try {
+      service.addEvent(new Event("Event 1",
+          TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+          Arrays.asList(PERSON_A, null)));
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+
+    try {
+      service.registerGroup("team", Arrays.asList(PERSON_A, null));
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+
+    assertTrue(service.snapshot().getEvents().isEmpty());
+    assertNull(service.snapshot().getGroup("team"));
+  }
+
+  @Test
+  public void standingGroupKeepsBusyTimesMerged() {
+    // Events  :       |--A--|
+    //                     |--B--|
+    //                           |--A--|
+    //                                 |--C--|
+    // Group   :       |-----------------|
+    CalendarService service = new CalendarService();
+    service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+    long eventId = service.addEvent(new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES),
+        Arrays.asList(PERSON_A, PERSON_B)));
+    service.registerGroup("team", Arrays.asList(PERSON_A, PERSON_B));
+    service.addEvent(new Event("Event 3",
+        TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+    service.addEvent(new Event("Event 4",
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), Arrays.asList(PERSON_C)));
+
+    assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)),
+        service.snapshot().getGroup("team").getBusyTimes());
+
+    // Taking out the middle event splits the merged time again.
+    service.removeEvent(eventId);
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+        TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES)),
+        service.snapshot().getGroup("team").getBusyTimes());
+
+    assertTrue(service.unregisterGroup("team"));
+    assertNull(service.snapshot().getGroup("team"));
+    assertFalse(service.unregisterGroup("team"));
+  }
+
+  @Test
+  public void groupBusyTimesAreMergedOnceWhileTheyDoNotChange() {
+    CalendarService service = new CalendarService();
+    service.registerGroup("team", Arrays.asList(PERSON_A, PERSON_B));
+    service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+    StandingGroup group = service.snapshot().getGroup("team");
+
+    assertSame(group.getBusyTimes(), group.getBusyTimes());
+
+    // An event nobody in the group attends leaves the group as it was.
+    service.addEvent(new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES), Arrays.asList(PERSON_C)));
+    assertSame(group, service.snapshot().getGroup("team"));
+  }
+
+  @Test
+  public void groupQueryMatchesQueryForEveryMember() {
+    CalendarService service = new CalendarService();
+    service.registerGroup("team", Arrays.asList(PERSON_A, PERSON_B));
+    service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), Arrays.asList(PERSON_A)));
+    service.addEvent(new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0930AM, DURATION_30_MINUTES), Arrays.asList(PERSON_B)));
+    service.addEvent(new Event("Event 3",
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES), Arrays.asList(PERSON_C)));
+    CalendarSnapshot snapshot = service.snapshot();
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    // C is an optional extra who can make it, so the last gap waits until C is free at 10:30.
+    MeetingRequest extras =
+        new MeetingRequest(Collections.<String>emptyList(), DURATION_30_MINUTES);
+    extras.addOptionalAttendee(PERSON_C);
+    MeetingRequest everyone =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    everyone.addOptionalAttendee(PERSON_C);
+    assertEquals(query.query(snapshot, everyone), query.queryGroup(snapshot, "team", extras));
+
+    MeetingRequest withC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_60_MINUTES);
+    assertEquals(
+        query.query(snapshot,
+            new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_60_MINUTES)),
+        query.queryGroup(snapshot, "team", withC));
+  }
+
+  @Test
+  public void changesSinceAVersion() {
+    CalendarService service = new CalendarService();
+    Event event1 = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    Event event2 = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_B));
+    long eventId1 = service.addEvent(event1);
+    long eventId2 = service.addEvent(event2);
+    long version = service.snapshot().getVersion();
+
+    // Event 3 comes and goes before anyone asks, so nobody needs to hear about it.
+    long eventId3 = service.addEvent(event1);
+    service.removeEvent(eventId3);
+    service.moveEvent(eventId1, TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES));
+    service.removeEvent(eventId2);
+    long eventId4 = service.addEvent(event2);
+
+    CalendarChanges changes = service.changesSince(version);
+    assertFalse(changes.isReset());
+    assertEquals(service.snapshot().getVersion(), changes.getVersion());
+    assertEquals(Arrays.asList(eventId1, eventId4), new ArrayList<>(changes.getAdded().keySet()));
+    assertEquals(TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+        changes.getAdded().get(eventId1).getWhen());
+    assertEquals(Arrays.asList(eventId2), changes.getRemoved());
+
+    assertTrue(service.changesSince(changes.getVersion()).getAdded().isEmpty());
+  }
+
+  @Test
+  public void changesResetOnceForgotten() {
+    Event event = new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A));
+    CalendarService service = new CalendarService(Arrays.asList(event), 2);
+    long version = service.snapshot().getVersion();
+    long eventId = service.addEvent(event);
+    service.addEvent(event);
+    service.removeEvent(eventId);
+
+    CalendarChanges changes = service.changesSince(version);
+    assertTrue(changes.isReset());
+    assertEquals(service.snapshot().getEventsById(), changes.getAdded());
+    assertTrue(service.changesSince(service.snapshot().getVersion() + 1).isReset());
+    assertFalse(service.changesSince(service.snapshot().getVersion() - 1).isReset());
+  }
+}
@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.Assert.*;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Checks every scheduling engine against the oracle of {@link SchedulerFuzzer} on seeded random
+ * calendars. Run with {@code -Dfuzz.seed=} and {@code -Dfuzz.cases=} to try other or more cases,
+ * and with {@code -Dfuzz.report} to print how many queries each engine answered per second.
+ */
+@RunWith(JUnit4.class)
+public final class DifferentialFuzzTest {
+  private static final long SEED = Long.getLong("fuzz.seed", 20190601L);
+  private static final int CASES = Integer.getInteger("fuzz.cases", 2000);
+  private static final boolean REPORT = System.getProperty("fuzz.report") != null;
+
+  private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+
+  @AfterClass
+  public static void shutDownPool() {
+    POOL.shutdown();
+  }
+
+  @Test
+  public void everyEngineAgreesWithTheOracle() {
+    SchedulerFuzzer fuzzer = new SchedulerFuzzer()
+        .addEngine("FindMeetingQuery", events -> request -> query.query(events, request))
+        .addEngine("AttendeeIndex", events -> {
+          AttendeeIndex index = new AttendeeIndex(events);
+          return request -> query.query(index, request);
+        })
+        .addEngine("CalendarSnapshot", events -> {
+          CalendarSnapshot snapshot = new CalendarService(events).snapshot();
+          return request -> query.query(snapshot, request);
+        })
+        .addEngine("QueryCache", events -> {
+          CalendarSnapshot snapshot = new CalendarService(events).snapshot();
+          QueryCache cache = new QueryCache(16, query);
+          return request -> cache.query(snapshot, request);
+        })
+        .addEngine("StandingGroup", events -> {
+          CalendarService service = new CalendarService(events);
+          return request -> {
+            // The mandatory attendees become the group and only the optional ones are passed on.
+            service.registerGroup("fuzz", request.getAttendees());
+            MeetingRequest extras = new MeetingRequest(
+                Collections.<String>emptyList(), request.getDuration());
+            for (String person : request.getOptionalAttendees()) {
+              extras.addOptionalAttendee(person);
+            }
+            return query.queryGroup(service.snapshot(), "fuzz", extras);
+          };
+        })
+        .addEngine("MappedCalendar", events -> {
+          try {
+            return MappedCalendar.decode(MappedCalendar.encode(events))::query;
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        })
+        .addEngine("MinuteBitmapIndex", events -> new MinuteBitmapIndex(events)::query)
+        .addEngine("BusyTimeMerger", events -> {
+          AttendeeIndex index = new AttendeeIndex(events);
+          // A tiny leaf size so that even small requests take the merger's parallel path.
+          BusyTimeMerger merger = new BusyTimeMerger(POOL, 2);
+          return request -> merger.query(index, request);
+        });
+
+    SchedulerFuzzer.Result result = fuzzer.run(SEED, CASES);
+    if (REPORT) {
+      System.out.print(result.throughputReport());
+    }
+
+    assertTrue(result.toString(), result.mismatches.isEmpty());
+    // Every engine answered every case, and its time was measured.
+    for (String engine : result.queries.keySet()) {
+      assertEquals(engine, CASES, (long) result.queries.get(engine));
+      assertTrue(engine, result.queriesPerSecond(engine) > 0);
+    }
+  }
+
+  @Test
+  public void shrinksFailureToMinimalCase() {
+    // An engine that forgets about optional attendees.
+    SchedulerFuzzer fuzzer = new SchedulerFuzzer().addEngine("MandatoryOnly",
+        events -> request ->
+            query.query(events, new MeetingRequest(request.getAttendees(), request.getDuration())));
+
+    SchedulerFuzzer.Result result = fuzzer.run(SEED, 500);
+
+    assertEquals(1, result.mismatches.size());
+    SchedulerFuzzer.Mismatch mismatch = result.mismatches.get(0);
+    assertNotEquals(mismatch.expected, mismatch.actual);
+
+    // All it takes is one optional attendee, and at most one event that only they go to.
+    SchedulerFuzzer.Case shrunk = mismatch.shrunk;
+    assertTrue(shrunk.attendees.isEmpty());
+    assertEquals(1, shrunk.optionalAttendees.size());
+    assertTrue(shrunk.events.size() <= 1);
+    for (Event event : shrunk.events) {
+      assertEquals(new HashSet<>(shrunk.optionalAttendees), event.getAttendees());
+    }
+  }
+}
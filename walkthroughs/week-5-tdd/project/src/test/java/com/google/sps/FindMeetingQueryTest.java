@@ -34,6 +34,7 @@ public final class FindMeetingQueryTest {
   // Some people that we can use in our tests.
   private static final String PERSON_A = "Person A";
   private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
 
   // All dates are the first day of the year 2020.
   private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
@@ -270,5 +271,368 @@ public final class FindMeetingQueryTest {
 
     assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void eventAfterNestedEvents() {
+    // Have one event nest inside another, then a later event. The later event must not move the
+    // free time back to before the end of the outer event.
+    //
+    // Events  : |-----A-----|
+    //              |--B--|      |--A--|
+    // Day     : |-------------------------|
+    // Options :             |---|     |---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_90_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM + DURATION_30_MINUTES, TimeRange.END_OF_DAY, true));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void lastMinuteOfTheDay() {
+    // Have one person busy until the last minute of the day. That last minute is still free.
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TimeRange.END_OF_DAY, false),
+        Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 1);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TimeRange.END_OF_DAY, 1));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventWithNoDurationDoesNotSplitTheDay() {
+    // Have one person with an event that has no duration. Nobody is busy during it, so the whole
+    // day is still one option.
+    //
+    // Events  :       |A
+    // Day     : |-----------------------|
+    // Options : |-----------------------|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0900AM, 0), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.WHOLE_DAY);
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventInsideOverlappingEvents() {
+    // Have two overlapping events, then an event inside the second of them. The free time must
+    // start after the second event, not after the one inside it.
+    //
+    // Events  : |--A--|
+    //              |----B----|
+    //                 |-A-|      |--A--|
+    // Day     : |------------------------------|
+    // Options :              |---|     |-------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0830AM, DURATION_90_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 4", TimeRange.fromStartDuration(TIME_1100AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            TimeRange.fromStartEnd(TIME_1100AM + DURATION_30_MINUTES, TimeRange.END_OF_DAY, true));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventRunningPastTheEndOfTheDay() {
+    // Have one person busy from the evening until past midnight. No option may go past the end of
+    // the day.
+    int evening = TimeRange.getTimeInMinutes(22, 0);
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(evening, DURATION_2_HOUR * 2), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, evening, false));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeBusyAllDayIsDropped() {
+    // The optional attendee is busy all day, so only the mandatory attendee is considered.
+    //
+    // Events  :       |--A--|
+    //           |---------C---------|
+    // Day     : |-------------------|
+    // Options : |--1--|     |---2---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    assertEquals(expected, actual);
+    assertEquals(Arrays.asList(PERSON_A), new ArrayList<String>(request.getAttendees()));
+  }
+
+  @Test
+  public void maximizeOptionalAttendees() {
+    // B cannot come at all, but C can come outside of their own event. The slot where only A can
+    // come is left out because C can come to the others.
+    //
+    // Events  :       |--A--|
+    //                       |--C--|
+    //           |------------B------------|
+    // Day     : |-------------------------|
+    // Options : |--1--|           |---2---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<MeetingSlot> actual = query.queryMaximizingOptional(events, request);
+    List<MeetingSlot> expected = Arrays.asList(
+        new MeetingSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            Arrays.asList(PERSON_C)),
+        new MeetingSlot(TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)));
+
+    assertEquals(expected, actual);
+    assertEquals(1, actual.get(0).getAttendeeCount());
+  }
+
+  @Test
+  public void maximizeOptionalAttendeesMatchesQueryWhenEveryoneFits() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    for (MeetingSlot slot : query.queryMaximizingOptional(events, request)) {
+      assertEquals(Collections.singleton(PERSON_B), slot.getAttendees());
+      actual.add(slot.getWhen());
+    }
+
+    assertEquals(query.query(events, request), actual);
+  }
+
+  @Test
+  public void topRankedByEarliestStart() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual = query.queryTopRanked(events, request, SlotScorer.EARLIEST_START, 2);
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0800AM + 1, DURATION_30_MINUTES));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void topRankedByLeastFragmentation() {
+    // The first gap fits the meeting exactly. After it, the meetings at either edge of the long gap
+    // keep the rest of it in one piece.
+    //
+    // Events  : |--A--|   |--A--|
+    // Day     : |---------------------------|
+    // Options :       |-1-|     |-2-|   |-3-|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<TimeRange> actual =
+        query.queryTopRanked(events, request, SlotScorer.LEAST_FRAGMENTATION, 3);
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+        TimeRange.fromStartEnd(
+            TimeRange.WHOLE_DAY.end() - DURATION_30_MINUTES, TimeRange.WHOLE_DAY.end(), false));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void topRankedByWorkingHours() {
+    // Only the meetings that start late enough to end inside the working day spend all of their
+    // time in it.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+
+    List<TimeRange> actual = query.queryTopRanked(
+        events, request, SlotScorer.workingHours(TIME_0830AM, TIME_1100AM), 1);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void topRankedStopsAtEveryPossibleStart() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY.duration());
+
+    assertEquals(Arrays.asList(TimeRange.WHOLE_DAY),
+        query.queryTopRanked(NO_EVENTS, request, SlotScorer.EARLIEST_START, 5));
+    assertEquals(Arrays.asList(),
+        query.queryTopRanked(NO_EVENTS, request, SlotScorer.EARLIEST_START, 0));
+    // Room is only made for the starts there are, not for the limit.
+    assertEquals(Arrays.asList(TimeRange.WHOLE_DAY),
+        query.queryTopRanked(NO_EVENTS, request, SlotScorer.EARLIEST_START, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void quorumOfAttendees() {
+    // Any two of A, B and C are enough. Around 9:00 only C can come, and around 9:30 only A can.
+    //
+    // Events  :     |---A---|
+    //                  |-----B-----|
+    //                          |-----C-----|
+    // Day     : |----------------------------------|
+    // Options : |-1-|
+    //             |2|
+    //                       |3|
+    //                              |-4-|
+    //                                      |---5---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0930AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_C)));
+
+    List<MeetingSlot> actual = query.queryQuorum(
+        events, Arrays.asList(PERSON_A, PERSON_B, PERSON_C), 2, DURATION_30_MINUTES);
+    List<MeetingSlot> expected = Arrays.asList(
+        new MeetingSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C)),
+        new MeetingSlot(TimeRange.fromStartEnd(TIME_0800AM - DURATION_30_MINUTES + 1, TIME_0830AM,
+            false), Arrays.asList(PERSON_B, PERSON_C)),
+        new MeetingSlot(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_C)),
+        new MeetingSlot(TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM + DURATION_30_MINUTES - 1,
+            false), Arrays.asList(PERSON_A, PERSON_B)),
+        new MeetingSlot(TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C)));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void quorumOfEveryoneMatchesQuery() {
+    // A's events overlap, which must not split the times when everyone can come.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0830AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_B)));
+    Collection<String> attendees = Arrays.asList(PERSON_A, PERSON_B);
+
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    for (MeetingSlot slot : query.queryQuorum(events, attendees, 2, DURATION_30_MINUTES)) {
+      actual.add(slot.getWhen());
+    }
+
+    assertEquals(
+        query.query(events, new MeetingRequest(attendees, DURATION_30_MINUTES)), actual);
+    assertEquals(Arrays.asList(), query.queryQuorum(events, attendees, 3, DURATION_30_MINUTES));
+  }
+
+  @Test
+  public void metricsRecordEachPhaseOnlyWhileEnabled() {
+    // Event 1 blocks the optional attendee's only chance, so the query is retried without them.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TimeRange.END_OF_DAY,
+            true), Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    QueryMetrics metrics = new QueryMetrics();
+    FindMeetingQuery measured = new FindMeetingQuery(metrics);
+    measured.query(events, request);
+    assertEquals(0, metrics.getQueryNanos().getCount());
+
+    metrics.setEnabled(true);
+    assertEquals(query.query(events, request), measured.query(events, request));
+    assertEquals(1, metrics.getQueryNanos().getCount());
+    assertEquals(1, metrics.getRetryCount());
+    assertEquals(2, metrics.getFilterNanos().getCount());
+    assertEquals(2, metrics.getSortNanos().getCount());
+    assertEquals(2, metrics.getSweepNanos().getCount());
+    assertEquals(2, metrics.getEventsScanned().getValueAtPercentile(100));
+    assertEquals(1, metrics.getIntervalsKept().getValueAtPercentile(50));
+    assertEquals(2, metrics.getIntervalsKept().getMax());
+
+    AttendeeCalendar calendar = new AttendeeIndex(events);
+    assertEquals(query.query(events, request), measured.query(calendar, request));
+    assertEquals(2, metrics.getQueryNanos().getCount());
+    assertEquals(2, metrics.getRetryCount());
+    assertEquals(4, metrics.getSweepNanos().getCount());
+    assertEquals(2, metrics.getSortNanos().getCount());
+  }
+}
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IcsImporterTest {
+  private static final LocalDate DAY = LocalDate.of(2020, 1, 1);
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final String EXPORT = String.join("\r\n",
+      "BEGIN:VCALENDAR",
+      "VERSION:2.0",
+      "BEGIN:VEVENT",
+      "UID:standup",
+      "DTSTART:20200101T090000Z",
+      "DURATION:PT30M",
+      "SUMMARY:Stand-up\\, daily",
+      "ORGANIZER;CN=Amelia:mailto:amelia@example.com",
+      "ATTENDEE;CN=\"Ava: the reviewer\";ROLE=REQ-PARTICIPANT:mailto:ava@exa",
+      " mple.com",
+      "END:VEVENT",
+      "BEGIN:VEVENT",
+      "UID:overnight",
+      "DTSTART:20191231T220000",
+      "DTEND:20200101T080000",
+      "SUMMARY:Flight",
+      "ATTENDEE:mailto:noah@example.com",
+      "END:VEVENT",
+      "BEGIN:VEVENT",
+      "UID:tomorrow",
+      "DTSTART;VALUE=DATE:20200102",
+      "SUMMARY:Holiday",
+      "ATTENDEE;CN=Emma:mailto:emma@example.com",
+      "END:VEVENT",
+      "END:VCALENDAR",
+      "");
+
+  @Test
+  public void importsEventsOnTheDay() throws IOException {
+    CalendarService service = new CalendarService();
+    IcsImporter.Result result = new IcsImporter(service, DAY).importFrom(new StringReader(EXPORT));
+
+    Collection<Event> expected = Arrays.asList(
+        new Event("Stand-up, daily", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            Arrays.asList("Amelia", "Ava: the reviewer")),
+        new Event("Flight", TimeRange.fromStartEnd(0, TIME_0800AM, false),
+            Arrays.asList("noah@example.com")));
+
+    assertEquals(new HashSet<>(expected), new HashSet<>(service.snapshot().getEvents()));
+    assertEquals(3, result.getRows());
+    assertEquals(2, result.getAdded());
+    assertEquals(1, result.getSkipped());
+  }
+
+  @Test
+  public void reimportOnlyAppliesChanges() throws IOException {
+    CalendarService service = new CalendarService();
+    IcsImporter importer = new IcsImporter(service, DAY, 1);
+    importer.importFrom(new StringReader(EXPORT));
+
+    // The stand-up moves to 10:00 and the flight is gone.
+    String newer = String.join("\r\n",
+        "BEGIN:VCALENDAR",
+        "BEGIN:VEVENT",
+        "UID:standup",
+        "DTSTART:20200101T100000",
+        "DTEND:20200101T103000",
+        "SUMMARY:Stand-up\\, daily",
+        "ORGANIZER;CN=Amelia:mailto:amelia@example.com",
+        "ATTENDEE;CN=\"Ava: the reviewer\":mailto:ava@example.com",
+        "END:VEVENT",
+        "END:VCALENDAR");
+    IcsImporter.Result result = importer.importFrom(new StringReader(newer));
+
+    assertEquals(1, result.getUpdated());
+    assertEquals(1, result.getRemoved());
+    assertEquals(0, result.getAdded());
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_1000AM, 30)),
+        service.snapshot().getBusyTimes("Amelia"));
+    assertEquals(1, service.snapshot().getEvents().size());
+
+    // Nothing changes the second time around.
+    result = importer.importFrom(new StringReader(newer));
+    assertEquals(1, result.getUnchanged());
+    assertEquals(1, service.snapshot().getEvents().size());
+  }
+
+  @Test
+  public void lowerCaseNamesParseInAnyLocale() throws IOException {
+    // Upper-casing "uid" in Turkish gives a dotted capital I, which is not "UID".
+    String export = String.join("\r\n",
+        "begin:vcalendar",
+        "begin:vevent",
+        "uid:standup",
+        "dtstart:20200101T090000",
+        "duration:PT30M",
+        "summary:Stand-up",
+        "attendee;cn=Ava:mailto:ava@example.com",
+        "end:vevent",
+        "end:vcalendar");
+    Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+      CalendarService service = new CalendarService();
+      IcsImporter.Result result =
+          new IcsImporter(service, DAY).importFrom(new StringReader(export));
+
+      assertEquals(1, result.getAdded());
+      assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false)),
+          service.snapshot().getBusyTimes("Ava"));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+}
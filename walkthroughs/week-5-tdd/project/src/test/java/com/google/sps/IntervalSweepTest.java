@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class IntervalSweepTest {
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void noIntervalsLeavesWholeDay() {
+    IntervalSweep sweep = new IntervalSweep();
+
+    assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), sweep.findAvailableTimes(DURATION_30_MINUTES));
+  }
+
+  @Test
+  public void backToBackIntervalsLeaveNoGap() {
+    // Events  :       |--A--|--B--|
+    // Day     : |-----------------------|
+    // Options : |--1--|           |--2--|
+    IntervalSweep sweep = new IntervalSweep();
+    sweep.add(TIME_0800AM, TIME_0830AM);
+    sweep.add(TIME_0830AM, TIME_0900AM);
+
+    assertEquals(Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+                     TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)),
+        sweep.findAvailableTimes(0));
+  }
+
+  @Test
+  public void laterIntervalAfterNestedOne() {
+    // Events  : |--------A--------|
+    //              |--B--|   |--C--|
+    //                                  |--D--|
+    // Day     : |----------------------------------|
+    // Options :                   |----|     |-----|
+    IntervalSweep sweep = new IntervalSweep();
+    sweep.add(TIME_0800AM, TIME_0930AM);
+    sweep.add(TIME_0830AM, TIME_0900AM);
+    sweep.add(TIME_0900AM, TIME_0930AM);
+    sweep.add(TIME_1000AM, TIME_1000AM + DURATION_30_MINUTES);
+
+    assertEquals(Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+                     TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+                     TimeRange.fromStartEnd(TIME_1000AM + DURATION_30_MINUTES,
+                         TimeRange.END_OF_DAY, true)),
+        sweep.findAvailableTimes(DURATION_30_MINUTES));
+  }
+
+  @Test
+  public void emptyAndOutOfDayIntervalsAreIgnored() {
+    IntervalSweep sweep = new IntervalSweep();
+    sweep.add(TIME_0900AM, TIME_0900AM);
+    sweep.add(TimeRange.WHOLE_DAY.end(), TimeRange.WHOLE_DAY.end() + DURATION_60_MINUTES);
+
+    assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), sweep.findAvailableTimes(DURATION_60_MINUTES));
+  }
+
+  @Test
+  public void lastMinuteOfTheDayIsFree() {
+    IntervalSweep sweep = new IntervalSweep();
+    sweep.add(TimeRange.START_OF_DAY, TimeRange.END_OF_DAY);
+
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TimeRange.END_OF_DAY, 1)),
+        sweep.findAvailableTimes(1));
+  }
+
+  @Test
+  public void growsPastInitialCapacity() {
+    IntervalSweep sweep = new IntervalSweep(0);
+    for (int start = 0; start < TIME_1000AM; start += DURATION_60_MINUTES) {
+      sweep.add(start, start + DURATION_30_MINUTES);
+    }
+
+    assertEquals(10, sweep.size());
+    assertEquals(10, sweep.findAvailableTimes(DURATION_30_MINUTES).size());
+  }
+
+  @Test
+  public void matchesReferenceQueryOnSampleCalendar() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    AttendeeIndex index = new AttendeeIndex(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (Event event : events) {
+      MeetingRequest request = new MeetingRequest(event.getAttendees(), DURATION_30_MINUTES);
+      assertEquals(query.query(events, request), query.query(index, request));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LogLinearHistogramTest {
+  @Test
+  public void bucketsKeepTheRequestedPrecision() {
+    LogLinearHistogram histogram = new LogLinearHistogram(5);
+
+    // Values below 2^5 are exact.
+    for (long value = 0; value < 32; value++) {
+      assertEquals(value, histogram.highestValueIn(histogram.bucketOf(value)));
+    }
+
+    // Larger values land in a bucket that is at most 1/32 of them wide, and contains them.
+    for (long value = 32; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+      int bucket = histogram.bucketOf(value);
+      long highest = histogram.highestValueIn(bucket);
+      long lowest = histogram.highestValueIn(bucket - 1) + 1;
+      assertTrue(lowest <= value && value <= highest);
+      assertTrue(highest - lowest < value / 32 + 1);
+    }
+    assertEquals(Long.MAX_VALUE, histogram.highestValueIn(histogram.bucketOf(Long.MAX_VALUE)));
+  }
+
+  @Test
+  public void percentiles() {
+    LogLinearHistogram histogram = new LogLinearHistogram();
+    for (long value = 1; value <= 1000; value++) {
+      histogram.record(value);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500.5, histogram.getMean(), 0);
+    assertEquals(1, histogram.getValueAtPercentile(0));
+    assertEquals(1000, histogram.getValueAtPercentile(100));
+
+    // 500 is counted with its neighbours 496 to 503.
+    assertEquals(503, histogram.getValueAtPercentile(50));
+    assertEquals(0, new LogLinearHistogram().getValueAtPercentile(99));
+  }
+}
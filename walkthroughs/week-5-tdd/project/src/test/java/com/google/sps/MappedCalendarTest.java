@@ -0,0 +1,123 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MappedCalendarTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person \u00c7";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private static final List<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+          Arrays.asList(PERSON_A, PERSON_B)),
+      new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+          Arrays.asList(PERSON_A)),
+      new Event("Event 3", TimeRange.fromStartDuration(TIME_1000AM, DURATION_30_MINUTES),
+          Arrays.asList(PERSON_C)));
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void answersLikeTheEventsItWasWrittenFrom() throws IOException {
+    File file = folder.newFile();
+    MappedCalendar.write(EVENTS, file.toPath());
+    MappedCalendar calendar = MappedCalendar.open(file.toPath());
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    MeetingRequest[] requests = {
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_B, PERSON_C), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList("Nobody"), DURATION_30_MINUTES),
+    };
+    requests[0].addOptionalAttendee(PERSON_C);
+    for (MeetingRequest request : requests) {
+      assertEquals(query.query(EVENTS, request), calendar.query(request));
+    }
+
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES)),
+        calendar.getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void keepsEventMetadata() throws IOException {
+    MappedCalendar calendar = MappedCalendar.decode(MappedCalendar.encode(EVENTS));
+
+    assertEquals(3, calendar.getEventCount());
+    assertEquals(EVENTS, Arrays.asList(calendar.getEvent(0), calendar.getEvent(1),
+        calendar.getEvent(2)));
+  }
+
+  @Test
+  public void rejectsDamagedFiles() throws IOException {
+    byte[] bytes = MappedCalendar.encode(EVENTS);
+
+    byte[] flipped = bytes.clone();
+    flipped[bytes.length - 1] ^= 1;
+    assertRejected(flipped, "checksum");
+
+    byte[] newer = bytes.clone();
+    newer[7] = MappedCalendar.VERSION + 1;
+    assertRejected(newer, "version");
+
+    assertRejected(Arrays.copyOf(bytes, bytes.length - 1), "truncated");
+    assertRejected(new byte[MappedCalendar.HEADER_SIZE], "Not a calendar");
+  }
+
+  @Test
+  public void writeReplacesTheWholeFile() throws IOException {
+    File file = folder.newFile();
+    MappedCalendar.write(EVENTS, file.toPath());
+    MappedCalendar.write(EVENTS.subList(0, 1), file.toPath());
+
+    MappedCalendar calendar = MappedCalendar.open(file.toPath());
+    calendar.verify();
+    assertEquals(1, calendar.getEventCount());
+    // The temporary file the snapshot was written to is gone.
+    assertEquals(1, folder.getRoot().list().length);
+  }
+
+  private static void assertRejected(byte[] bytes, String message) {
+    try {
+      MappedCalendar.decode(bytes).verify();
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+  }
+}
@@ -0,0 +1,104 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingPlannerTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private static final long BUDGET_MILLIS = 1000;
+
+  @Test
+  public void placesTheMostConstrainedMeetingFirst() {
+    // Booking the first meeting at the earliest time would leave no time for the second one.
+    //
+    // Events  : |---A---|       |-----A-----|
+    //           |---B---|   |-------B-------|
+    // Day     : |-------------------------------|
+    // Options :         |-2-|-1-|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_B)));
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_1_HOUR));
+
+    MeetingPlan plan = new MeetingPlanner(new AttendeeIndex(events)).plan(requests, BUDGET_MILLIS);
+
+    assertEquals(Arrays.asList(TimeRange.fromStartDuration(TIME_0900AM, DURATION_1_HOUR),
+                     TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR)),
+        plan.getTimes());
+    assertTrue(plan.isFullyPlaced());
+    assertTrue(plan.isComplete());
+  }
+
+  @Test
+  public void leavesOutMeetingsThatCannotFit() {
+    // A is only free for one hour, so only one of the meetings with A fits. B's meeting does not
+    // depend on either of them.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)));
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR),
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR),
+        new MeetingRequest(Arrays.asList(PERSON_B), DURATION_1_HOUR));
+
+    MeetingPlan plan = new MeetingPlanner(new AttendeeIndex(events)).plan(requests, BUDGET_MILLIS);
+
+    assertEquals(2, plan.getPlacedCount());
+    assertTrue(plan.getTime(0) == null || plan.getTime(1) == null);
+    assertNotNull(plan.getTime(2));
+    assertFalse(plan.isFullyPlaced());
+    assertTrue(plan.isComplete());
+  }
+
+  @Test
+  public void outOfTimeReturnsPartialPlan() {
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR),
+        new MeetingRequest(Arrays.asList(PERSON_B), DURATION_1_HOUR));
+
+    MeetingPlan plan =
+        new MeetingPlanner(new AttendeeIndex(Arrays.<Event>asList())).plan(requests, -1);
+
+    assertFalse(plan.isComplete());
+    assertEquals(2, plan.getTimes().size());
+  }
+}
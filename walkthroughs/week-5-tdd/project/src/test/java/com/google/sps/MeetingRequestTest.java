@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,4 +45,14 @@ public final class MeetingRequestTest {
     int expected = 0;
     assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void jsonWithoutOptionalAttendeesHasNone() {
+    MeetingRequest request = new Gson().fromJson(
+        "{\"attendees\": [\"Person A\"], \"duration\": 60}", MeetingRequest.class);
+
+    assertEquals(Arrays.asList(PERSON_A), new ArrayList<String>(request.getAttendees()));
+    assertEquals(0, request.getOptionalAttendees().size());
+    assertEquals(DURATION_1_HOUR, request.getDuration());
+  }
+}
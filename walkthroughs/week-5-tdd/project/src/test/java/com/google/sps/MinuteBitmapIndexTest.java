@@ -0,0 +1,74 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MinuteBitmapIndexTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DURATION_1_MINUTE = 1;
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void eventsAcrossWordBoundaries() {
+    // Minutes 63 and 64 sit in different words, as do 127 and 128.
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(63, 65, false), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(100, 128, false), Arrays.asList(PERSON_B)));
+
+    MinuteBitmapIndex index = new MinuteBitmapIndex(events);
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_1_MINUTE);
+
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(0, 63, false),
+        TimeRange.fromStartEnd(65, 100, false),
+        TimeRange.fromStartEnd(128, TimeRange.END_OF_DAY, true));
+
+    assertEquals(expected, index.query(request));
+  }
+
+  @Test
+  public void wholeDayBusy() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)));
+
+    MinuteBitmapIndex index = new MinuteBitmapIndex(events);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_MINUTE);
+
+    assertEquals(Arrays.asList(), index.query(request));
+  }
+
+  @Test
+  public void matchesReferenceQueryOnSampleCalendar() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    MinuteBitmapIndex index = new MinuteBitmapIndex(events);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (Event event : events) {
+      MeetingRequest request = new MeetingRequest(event.getAttendees(), DURATION_30_MINUTES);
+      assertEquals(query.query(events, request), index.query(request));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MultiDayCalendarTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // All dates are days since the epoch.
+  private static final long DAY_1 = 18262;
+  private static final long DAY_2 = DAY_1 + 1;
+  private static final long DAY_3 = DAY_1 + 2;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1700PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void findsSlotsAcrossDays() {
+    // A is busy overnight from 17:00 on day 1 to 09:00 on day 2, B all of day 2 after 09:00.
+    MultiDayCalendar calendar = new MultiDayCalendar.Builder()
+        .addEvent(Arrays.asList(PERSON_A),
+            CalendarRange.fromStartEnd(CalendarRange.getEpochMinute(DAY_1, TIME_1700PM),
+                CalendarRange.getEpochMinute(DAY_2, TIME_0900AM)))
+        .addEvent(Arrays.asList(PERSON_B),
+            CalendarRange.fromStartEnd(CalendarRange.getEpochMinute(DAY_2, TIME_0900AM),
+                CalendarRange.getEpochMinute(DAY_3, 0)))
+        .build();
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES);
+    CalendarRange window = CalendarRange.fromStartEnd(
+        CalendarRange.getEpochMinute(DAY_1, 0), CalendarRange.getEpochMinute(DAY_3, 0) + 120);
+
+    List<CalendarRange> expected = Arrays.asList(
+        CalendarRange.fromStartEnd(CalendarRange.getEpochMinute(DAY_1, 0),
+            CalendarRange.getEpochMinute(DAY_1, TIME_1700PM)),
+        CalendarRange.fromStartEnd(CalendarRange.getEpochMinute(DAY_3, 0),
+            CalendarRange.getEpochMinute(DAY_3, 0) + 120));
+
+    assertEquals(expected, calendar.query(request, window));
+  }
+
+  @Test
+  public void tooShortGapsAreSkipped() {
+    // Busy for the first 50 minutes of every hour for two days, so the only 30 minute slot starts
+    // after the last of those.
+    MultiDayCalendar.Builder builder = new MultiDayCalendar.Builder();
+    long start = CalendarRange.getEpochMinute(DAY_1, 0);
+    long end = CalendarRange.getEpochMinute(DAY_3, 0);
+    for (long hour = start; hour < end; hour += 60) {
+      builder.addEvent(Arrays.asList(PERSON_A), CalendarRange.fromStartDuration(hour, 50));
+    }
+
+    List<CalendarRange> actual = builder.build().findAvailableTimes(
+        Arrays.asList(PERSON_A), DURATION_30_MINUTES, CalendarRange.wholeDay(DAY_1));
+    assertEquals(Arrays.asList(), actual);
+
+    actual = builder.build().findAvailableTimes(Arrays.asList(PERSON_A), DURATION_30_MINUTES,
+        CalendarRange.fromStartEnd(start, end + DURATION_60_MINUTES));
+    assertEquals(
+        Arrays.asList(CalendarRange.fromStartEnd(end - 10, end + DURATION_60_MINUTES)), actual);
+  }
+
+  @Test
+  public void matchesReferenceQueryOnSampleCalendar() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    MultiDayCalendar calendar = new MultiDayCalendar.Builder().addEvents(DAY_2, events).build();
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    for (Event event : events) {
+      MeetingRequest request = new MeetingRequest(event.getAttendees(), DURATION_30_MINUTES);
+
+      List<TimeRange> actual = new ArrayList<>();
+      for (CalendarRange range : calendar.query(request, CalendarRange.wholeDay(DAY_2))) {
+        actual.add(TimeRange.fromStartEnd(
+            (int) (range.start() - CalendarRange.getEpochMinute(DAY_2, 0)),
+            (int) (range.end() - CalendarRange.getEpochMinute(DAY_2, 0)), false));
+      }
+      assertEquals(query.query(events, request), actual);
+    }
+  }
+
+  @Test
+  public void recurringEventsAreMergedIn() {
+    // A works 09:00 to 17:00 every day but day 2.
+    MultiDayCalendar calendar = new MultiDayCalendar.Builder()
+        .addRecurringEvent(new RecurringEvent("Work",
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1700PM, false), Arrays.asList(PERSON_A),
+            RecurrenceRule.daily(DAY_1).except(DAY_2).build()))
+        .build();
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    CalendarRange window = CalendarRange.fromStartEnd(
+        CalendarRange.getEpochMinute(DAY_1, 0), CalendarRange.getEpochMinute(DAY_3, TIME_1700PM));
+
+    List<CalendarRange> expected = Arrays.asList(
+        CalendarRange.fromStartEnd(CalendarRange.getEpochMinute(DAY_1, 0),
+            CalendarRange.getEpochMinute(DAY_1, TIME_0900AM)),
+        CalendarRange.fromStartEnd(CalendarRange.getEpochMinute(DAY_1, TIME_1700PM),
+            CalendarRange.getEpochMinute(DAY_3, TIME_0900AM)));
+
+    assertEquals(expected, calendar.query(request, window));
+  }
+
+  @Test
+  public void recurringEventThatNeverLeavesRoom() {
+    // Every free gap is 16 hours long, so a 17 hour meeting never fits.
+    MultiDayCalendar calendar = new MultiDayCalendar.Builder()
+        .addRecurringEvent(new RecurringEvent("Work",
+            TimeRange.fromStartEnd(TIME_0900AM, TIME_1700PM, false), Arrays.asList(PERSON_A),
+            RecurrenceRule.daily(DAY_1).build()))
+        .build();
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 17 * 60);
+    CalendarRange window = CalendarRange.fromStartDuration(
+        CalendarRange.getEpochMinute(DAY_1, TIME_1700PM), 1000 * CalendarRange.MINUTES_PER_DAY);
+
+    assertEquals(Arrays.asList(), calendar.query(request, window));
+  }
+}
@@ -0,0 +1,113 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PersistentTreeMapTest {
+  @Test
+  public void oldVersionsAreUnchanged() {
+    PersistentTreeMap<Integer, String> empty =
+        new PersistentTreeMap<>(Comparator.<Integer>naturalOrder());
+    PersistentTreeMap<Integer, String> one = empty.put(1, "one");
+    PersistentTreeMap<Integer, String> two = one.put(2, "two");
+    PersistentTreeMap<Integer, String> removed = two.remove(1);
+
+    assertEquals(0, empty.size());
+    assertEquals(1, one.size());
+    assertNull(one.get(2));
+    assertEquals("two", two.get(2));
+    assertNull(removed.get(1));
+    assertEquals("one", two.get(1));
+    assertSame(removed, removed.remove(1));
+  }
+
+  @Test
+  public void matchesTreeMap() {
+    Random random = new Random(42);
+    TreeMap<Integer, Integer> expected = new TreeMap<>();
+    PersistentTreeMap<Integer, Integer> actual =
+        new PersistentTreeMap<>(Comparator.<Integer>naturalOrder());
+
+    for (int i = 0; i < 5000; i++) {
+      int key = random.nextInt(500);
+      if (random.nextBoolean()) {
+        expected.put(key, i);
+        actual = actual.put(key, i);
+      } else {
+        expected.remove(key);
+        actual = actual.remove(key);
+      }
+    }
+
+    assertEquals(expected.size(), actual.size());
+    List<Integer> keys = new ArrayList<>();
+    actual.forEach((key, value) -> keys.add(key));
+    assertEquals(new ArrayList<>(expected.keySet()), keys);
+    assertEquals(new ArrayList<>(expected.values()), actual.values());
+  }
+
+  @Test
+  public void fromSortedMatchesPuttingEachKey() {
+    List<Integer> keys = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    PersistentTreeMap<Integer, String> expected =
+        new PersistentTreeMap<>(Comparator.<Integer>naturalOrder());
+    for (int key = 0; key < 1000; key += 3) {
+      keys.add(key);
+      values.add("value " + key);
+      expected = expected.put(key, "value " + key);
+    }
+
+    PersistentTreeMap<Integer, String> actual =
+        PersistentTreeMap.fromSorted(Comparator.<Integer>naturalOrder(), keys, values);
+
+    assertEquals(expected.values(), actual.values());
+    assertEquals("value 300", actual.get(300));
+    assertNull(actual.get(301));
+    // The tree keeps working as any other.
+    assertEquals(expected.put(1, "one").remove(300).values(),
+        actual.put(1, "one").remove(300).values());
+    assertTrue(PersistentTreeMap.fromSorted(Comparator.<Integer>naturalOrder(),
+        new ArrayList<Integer>(), new ArrayList<String>()).isEmpty());
+  }
+
+  @Test
+  public void fromSortedRejectsKeysOutOfOrder() {
+    List<Integer> keys = new ArrayList<>();
+    keys.add(2);
+    keys.add(1);
+    List<String> values = new ArrayList<>();
+    values.add("two");
+    values.add("one");
+
+    try {
+      PersistentTreeMap.fromSorted(Comparator.<Integer>naturalOrder(), keys, values);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+  }
+}
@@ -0,0 +1,98 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryCacheTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void repeatedQueryIsAHit() {
+    CalendarService service = new CalendarService();
+    service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+    QueryCache cache = new QueryCache(10);
+
+    // The same people in another order are the same query.
+    Collection<TimeRange> first = cache.query(service.snapshot(),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES));
+    Collection<TimeRange> second = cache.query(service.snapshot(),
+        new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_30_MINUTES));
+
+    assertSame(first, second);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void changeToAnAttendeeInvalidates() {
+    CalendarService service = new CalendarService();
+    long eventId = service.addEvent(new Event("Event 1",
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A)));
+    QueryCache cache = new QueryCache(10);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.query(service.snapshot(), request);
+
+    // Someone outside the request changing their events keeps the answer.
+    service.addEvent(new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_B)));
+    cache.query(service.snapshot(), request);
+    assertEquals(1, cache.getHitCount());
+
+    service.moveEvent(eventId, TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES));
+    Collection<TimeRange> actual = cache.query(service.snapshot(), request);
+
+    assertEquals(new FindMeetingQuery().query(service.snapshot(), request), actual);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvicted() {
+    CalendarSnapshot snapshot = new CalendarService().snapshot();
+    QueryCache cache = new QueryCache(2);
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+
+    cache.query(snapshot, requestA);
+    cache.query(snapshot, requestB);
+    cache.query(snapshot, requestA);
+    cache.query(snapshot, requestC);
+    assertEquals(2, cache.size());
+
+    // B was used least recently, so it went to make room for C.
+    cache.query(snapshot, requestA);
+    cache.query(snapshot, requestB);
+    assertEquals(2, cache.getHitCount());
+    assertEquals(4, cache.getMissCount());
+  }
+}
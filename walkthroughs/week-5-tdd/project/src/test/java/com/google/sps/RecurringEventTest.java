@@ -0,0 +1,88 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+
+  // All dates are days since the epoch. Day 1 is Wednesday, January 1st 2020.
+  private static final long DAY_1 = LocalDate.of(2020, 1, 1).toEpochDay();
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void dailyWithIntervalCountAndException() {
+    RecurrenceRule rule =
+        RecurrenceRule.daily(DAY_1).every(2).count(3).except(DAY_1 + 2).build();
+
+    assertEquals(DAY_1, rule.nextOccurrence(DAY_1 - 10));
+    assertEquals(DAY_1 + 4, rule.nextOccurrence(DAY_1 + 1));
+    assertEquals(Long.MAX_VALUE, rule.nextOccurrence(DAY_1 + 5));
+    assertEquals(DAY_1 + 4, rule.getLastDay());
+  }
+
+  @Test
+  public void weeklyOnSeveralWeekdays() {
+    // Mondays and Wednesdays every other week, starting on a Wednesday.
+    RecurrenceRule rule = RecurrenceRule.weekly(DAY_1)
+        .every(2)
+        .on(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY)
+        .count(4)
+        .build();
+
+    long monday = LocalDate.of(2020, 1, 13).toEpochDay();
+    assertEquals(DAY_1, rule.nextOccurrence(DAY_1));
+    assertEquals(monday, rule.nextOccurrence(DAY_1 + 1));
+    assertEquals(monday + 2, rule.nextOccurrence(monday + 1));
+    assertEquals(monday + 14, rule.nextOccurrence(monday + 3));
+    assertEquals(Long.MAX_VALUE, rule.nextOccurrence(monday + 15));
+  }
+
+  @Test
+  public void weeklyUntilLastDay() {
+    RecurrenceRule rule = RecurrenceRule.weekly(DAY_1).until(DAY_1 + 20).build();
+
+    assertEquals(DAY_1 + 14, rule.nextOccurrence(DAY_1 + 8));
+    assertEquals(Long.MAX_VALUE, rule.nextOccurrence(DAY_1 + 15));
+  }
+
+  @Test
+  public void occurrencesOnlyWithinWindow() {
+    RecurringEvent event = new RecurringEvent("Stand-up",
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), Arrays.asList(PERSON_A),
+        RecurrenceRule.daily(DAY_1).build());
+
+    CalendarRange window = CalendarRange.fromStartEnd(
+        CalendarRange.getEpochMinute(DAY_1 + 100, TIME_0900AM + 10),
+        CalendarRange.getEpochMinute(DAY_1 + 102, 0));
+
+    assertEquals(
+        Arrays.asList(CalendarRange.onDay(DAY_1 + 100, event.getWhen()),
+            CalendarRange.onDay(DAY_1 + 101, event.getWhen())),
+        event.getOccurrences(window));
+  }
+}
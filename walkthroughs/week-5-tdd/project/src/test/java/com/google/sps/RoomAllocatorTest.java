@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RoomAllocatorTest {
+  private static final Room SMALL_ROOM = new Room("Small", 4);
+  private static final Room OTHER_SMALL_ROOM = new Room("Other small", 4);
+  private static final Room LARGE_ROOM = new Room("Large", 12);
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void smallestFittingRoomIsUsed() {
+    RoomAllocator allocator =
+        new RoomAllocator(Arrays.asList(LARGE_ROOM, SMALL_ROOM, OTHER_SMALL_ROOM));
+
+    List<Room> actual = allocator.allocate(Arrays.asList(
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), 10),
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), 3),
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), 4)));
+
+    assertEquals(Arrays.asList(LARGE_ROOM, SMALL_ROOM, OTHER_SMALL_ROOM), actual);
+  }
+
+  @Test
+  public void largerRoomWhenSmallOnesAreBusy() {
+    RoomAllocator allocator = new RoomAllocator(Arrays.asList(SMALL_ROOM, LARGE_ROOM));
+
+    List<Room> actual = allocator.allocate(Arrays.asList(
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), 2),
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0830AM, DURATION_60_MINUTES), 2),
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), 2),
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES), 2)));
+
+    // The small room frees up at 9:00, just in time for the last meeting.
+    assertEquals(Arrays.asList(SMALL_ROOM, LARGE_ROOM, null, SMALL_ROOM), actual);
+  }
+
+  @Test
+  public void tooManyPeopleForAnyRoom() {
+    RoomAllocator allocator = new RoomAllocator(Arrays.asList(SMALL_ROOM, LARGE_ROOM));
+
+    List<Room> actual = allocator.allocate(Arrays.asList(
+        new RoomRequest(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), 13)));
+
+    assertEquals(Arrays.asList((Room) null), actual);
+  }
+
+  @Test
+  public void requestForFreeSlot() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList("Person A", "Person B"), DURATION_30_MINUTES);
+    request.addOptionalAttendee("Person C");
+
+    RoomRequest roomRequest = RoomRequest.forSlot(
+        request, TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES));
+
+    assertEquals(
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES), roomRequest.getWhen());
+    assertEquals(3, roomRequest.getHeadCount());
+  }
+
+  @Test
+  public void manyRoomsNeverDoubleBooked() {
+    List<Room> rooms = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rooms.add(new Room("Room " + i, 2 + i % 10));
+    }
+    List<RoomRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      requests.add(new RoomRequest(
+          TimeRange.fromStartDuration((i * 37) % 1380, 15 + i % 46), 1 + (i * 7) % 12));
+    }
+
+    List<Room> actual = new RoomAllocator(rooms).allocate(requests);
+
+    Map<Room, List<TimeRange>> bookings = new HashMap<>();
+    for (int i = 0; i < requests.size(); i++) {
+      Room room = actual.get(i);
+      if (room == null) {
+        continue;
+      }
+      TimeRange when = requests.get(i).getWhen();
+      assertTrue(room.getCapacity() >= requests.get(i).getHeadCount());
+      for (TimeRange other : bookings.computeIfAbsent(room, r -> new ArrayList<>())) {
+        assertFalse(when.overlaps(other));
+      }
+      bookings.get(room).add(when);
+    }
+  }
+}
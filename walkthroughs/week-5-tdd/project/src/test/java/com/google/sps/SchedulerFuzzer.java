@@ -0,0 +1,473 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Differential fuzzer for the scheduling engines. It generates seeded calendars and requests, asks
+ * every engine and an oracle for the available times, and shrinks each engine's first disagreement
+ * down to a case that still disagrees but cannot lose another event, attendee or minute. The oracle
+ * shares no code with the engines: it marks the busy minutes of the day one by one and handles
+ * empty requests, bad durations and optional attendees on its own.
+ */
+final class SchedulerFuzzer {
+  private static final int REQUESTS_PER_CALENDAR = 4;
+  private static final int CROWD = 48;
+  private static final long[] DURATIONS = {0, 1, 30, 60, TimeRange.WHOLE_DAY.duration(),
+      TimeRange.WHOLE_DAY.duration() + 1};
+
+  /**
+   * An engine under test. It is prepared once for each calendar, so that building an index is not
+   * counted against the queries it answers.
+   */
+  interface Engine {
+    Function<MeetingRequest, Collection<TimeRange>> prepare(List<Event> events);
+  }
+
+  /**
+   * One calendar and one request against it.
+   */
+  static final class Case {
+    final List<Event> events;
+    final List<String> attendees;
+    final List<String> optionalAttendees;
+    final long duration;
+
+    Case(List<Event> events, List<String> attendees, List<String> optionalAttendees,
+        long duration) {
+      this.events = events;
+      this.attendees = attendees;
+      this.optionalAttendees = optionalAttendees;
+      this.duration = duration;
+    }
+
+    MeetingRequest toRequest() {
+      MeetingRequest request = new MeetingRequest(attendees, duration);
+      for (String person : optionalAttendees) {
+        request.addOptionalAttendee(person);
+      }
+      return request;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      for (Event event : events) {
+        builder.append(String.format("  %s [%d, %d) %s%n", event.getTitle(),
+            event.getWhen().start(), event.getWhen().end(), event.getAttendees()));
+      }
+      return builder.append(String.format("  request %s optional %s duration %d", attendees,
+          optionalAttendees, duration)).toString();
+    }
+  }
+
+  /**
+   * The first case an engine got wrong, before and after shrinking.
+   */
+  static final class Mismatch {
+    final String engine;
+    final Case original;
+    final Case shrunk;
+    final String expected;
+    final String actual;
+
+    Mismatch(String engine, Case original, Case shrunk, String expected, String actual) {
+      this.engine = engine;
+      this.original = original;
+      this.shrunk = shrunk;
+      this.expected = expected;
+      this.actual = actual;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s disagrees with the oracle on%n%s%nexpected %s%nbut was %s",
+          engine, shrunk, expected, actual);
+    }
+  }
+
+  /**
+   * What one run found: how many requests each engine answered, how long they took, how many of
+   * them were wrong and the first of those.
+   */
+  static final class Result {
+    final long seed;
+    final Map<String, Long> queries = new LinkedHashMap<>();
+    final Map<String, Long> nanos = new LinkedHashMap<>();
+    final Map<String, Long> failures = new LinkedHashMap<>();
+    final List<Mismatch> mismatches = new ArrayList<>();
+
+    Result(long seed) {
+      this.seed = seed;
+    }
+
+    /**
+     * Returns how many requests {@code engine} answered per second of its own time.
+     */
+    double queriesPerSecond(String engine) {
+      return queries.get(engine) * 1e9 / Math.max(1, nanos.get(engine));
+    }
+
+    /**
+     * Returns one line for each engine with the number of requests it answered per second.
+     */
+    String throughputReport() {
+      StringBuilder builder = new StringBuilder(String.format("Fuzz run with seed %d%n", seed));
+      for (Map.Entry<String, Long> entry : queries.entrySet()) {
+        String engine = entry.getKey();
+        builder.append(String.format("  %-18s %8d queries %12.0f queries/s %6d wrong%n", engine,
+            entry.getValue(), queriesPerSecond(engine), failures.get(engine)));
+      }
+      return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder(String.format("Fuzz run with seed %d", seed));
+      for (Mismatch mismatch : mismatches) {
+        builder.append(String.format("%n%s", mismatch));
+      }
+      return builder.toString();
+    }
+  }
+
+  /** The name the oracle's throughput is recorded under. */
+  static final String ORACLE = "Oracle";
+
+  private final Map<String, Engine> engines = new LinkedHashMap<>();
+
+  SchedulerFuzzer addEngine(String name, Engine engine) {
+    engines.put(name, engine);
+    return this;
+  }
+
+  /**
+   * Checks every engine against the oracle on {@code cases} requests generated from {@code seed}.
+   */
+  Result run(long seed, int cases) {
+    Random random = new Random(seed);
+    Result result = new Result(seed);
+    result.queries.put(ORACLE, 0L);
+    result.nanos.put(ORACLE, 0L);
+    result.failures.put(ORACLE, 0L);
+    for (String engine : engines.keySet()) {
+      result.queries.put(engine, 0L);
+      result.nanos.put(engine, 0L);
+      result.failures.put(engine, 0L);
+    }
+
+    for (int done = 0; done < cases; done += REQUESTS_PER_CALENDAR) {
+      // Now and then a crowd, so that the engines' paths for large requests are taken too.
+      List<String> people = people(random.nextInt(8) == 0 ? CROWD : 2 + random.nextInt(7));
+      List<Event> events = generateEvents(random, people);
+      List<Case> calendarCases = new ArrayList<>();
+      List<List<TimeRange>> expected = new ArrayList<>();
+      for (int i = 0; i < REQUESTS_PER_CALENDAR && done + i < cases; i++) {
+        Case fuzzCase = generateRequest(random, events, people);
+        long start = System.nanoTime();
+        List<TimeRange> times = expectedTimes(fuzzCase);
+        record(result, ORACLE, System.nanoTime() - start);
+        calendarCases.add(fuzzCase);
+        expected.add(times);
+      }
+
+      for (Map.Entry<String, Engine> entry : engines.entrySet()) {
+        String name = entry.getKey();
+        Function<MeetingRequest, Collection<TimeRange>> engine = entry.getValue().prepare(events);
+        for (int i = 0; i < calendarCases.size(); i++) {
+          MeetingRequest request = calendarCases.get(i).toRequest();
+          String actual;
+          long start = System.nanoTime();
+          try {
+            actual = new ArrayList<>(engine.apply(request)).toString();
+          } catch (RuntimeException e) {
+            actual = e.toString();
+          }
+          record(result, name, System.nanoTime() - start);
+
+          if (!actual.equals(expected.get(i).toString())) {
+            long failures = result.failures.get(name);
+            result.failures.put(name, failures + 1);
+            if (failures == 0) {
+              Case shrunk = shrink(entry.getValue(), calendarCases.get(i));
+              result.mismatches.add(new Mismatch(name, calendarCases.get(i), shrunk,
+                  answer(expectedTimes(shrunk)), answer(engineAnswer(entry.getValue(), shrunk))));
+            }
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the smallest case reachable from {@code failing} by dropping events and attendees and
+   * rounding times, on which {@code engine} still disagrees with the oracle.
+   */
+  Case shrink(Engine engine, Case failing) {
+    Case current = failing;
+    boolean shrunk = true;
+    while (shrunk) {
+      shrunk = false;
+      for (Case candidate : simplifications(current)) {
+        if (disagrees(engine, candidate)) {
+          current = candidate;
+          shrunk = true;
+          break;
+        }
+      }
+    }
+    return current;
+  }
+
+  private boolean disagrees(Engine engine, Case fuzzCase) {
+    return !answer(expectedTimes(fuzzCase)).equals(answer(engineAnswer(engine, fuzzCase)));
+  }
+
+  /**
+   * Returns the times when the meeting in {@code fuzzCase} could happen. If nobody is invited the
+   * whole day is free, a meeting longer than a day or shorter than nothing never fits, and when the
+   * optional attendees leave no time the mandatory ones are asked on their own.
+   */
+  static List<TimeRange> expectedTimes(Case fuzzCase) {
+    Set<String> everyone = new HashSet<>(fuzzCase.attendees);
+    everyone.addAll(fuzzCase.optionalAttendees);
+    if (everyone.isEmpty()) {
+      return Arrays.asList(TimeRange.WHOLE_DAY);
+    }
+
+    if (fuzzCase.duration < 0 || fuzzCase.duration > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    List<TimeRange> times = freeMinutes(fuzzCase.events, everyone, fuzzCase.duration);
+    if (times.isEmpty() && !fuzzCase.optionalAttendees.isEmpty()) {
+      return expectedTimes(new Case(fuzzCase.events, fuzzCase.attendees,
+          Collections.<String>emptyList(), fuzzCase.duration));
+    }
+    return times;
+  }
+
+  /**
+   * Marks every minute of the day that one of {@code people} is busy, and returns the runs of free
+   * minutes that are at least {@code duration} long.
+   */
+  private static List<TimeRange> freeMinutes(
+      List<Event> events, Set<String> people, long duration) {
+    boolean[] busy = new boolean[TimeRange.WHOLE_DAY.duration()];
+    for (Event event : events) {
+      if (!Collections.disjoint(event.getAttendees(), people)) {
+        int end = Math.min(event.getWhen().end(), busy.length);
+        for (int minute = Math.max(0, event.getWhen().start()); minute < end; minute++) {
+          busy[minute] = true;
+        }
+      }
+    }
+
+    List<TimeRange> times = new ArrayList<>();
+    int minute = 0;
+    while (minute < busy.length) {
+      if (busy[minute]) {
+        minute++;
+        continue;
+      }
+      int start = minute;
+      while (minute < busy.length && !busy[minute]) {
+        minute++;
+      }
+      if (minute - start >= duration) {
+        times.add(TimeRange.fromStartEnd(start, minute, false));
+      }
+    }
+    return times;
+  }
+
+  private static Object engineAnswer(Engine engine, Case fuzzCase) {
+    try {
+      return engine.prepare(fuzzCase.events).apply(fuzzCase.toRequest());
+    } catch (RuntimeException e) {
+      return e;
+    }
+  }
+
+  private static String answer(Object times) {
+    return times instanceof Collection ? new ArrayList<>((Collection<?>) times).toString()
+        : times.toString();
+  }
+
+  private static void record(Result result, String engine, long nanos) {
+    result.queries.put(engine, result.queries.get(engine) + 1);
+    result.nanos.put(engine, result.nanos.get(engine) + nanos);
+  }
+
+  /**
+   * Returns every case that is one step simpler than {@code fuzzCase}, biggest steps first.
+   */
+  private static List<Case> simplifications(Case fuzzCase) {
+    List<Case> candidates = new ArrayList<>();
+    List<Event> events = fuzzCase.events;
+    for (int i = 0; i < events.size(); i++) {
+      List<Event> fewer = new ArrayList<>(events);
+      fewer.remove(i);
+      candidates.add(new Case(fewer, fuzzCase.attendees, fuzzCase.optionalAttendees,
+          fuzzCase.duration));
+    }
+
+    for (int i = 0; i < fuzzCase.attendees.size(); i++) {
+      List<String> fewer = new ArrayList<>(fuzzCase.attendees);
+      fewer.remove(i);
+      candidates.add(new Case(events, fewer, fuzzCase.optionalAttendees, fuzzCase.duration));
+    }
+
+    for (int i = 0; i < fuzzCase.optionalAttendees.size(); i++) {
+      List<String> fewer = new ArrayList<>(fuzzCase.optionalAttendees);
+      fewer.remove(i);
+      candidates.add(new Case(events, fuzzCase.attendees, fewer, fuzzCase.duration));
+    }
+
+    for (int i = 0; i < events.size(); i++) {
+      Event event = events.get(i);
+      for (String attendee : event.getAttendees()) {
+        List<String> fewer = new ArrayList<>(event.getAttendees());
+        fewer.remove(attendee);
+        candidates.add(withEvent(fuzzCase, i, new Event(event.getTitle(), event.getWhen(), fewer)));
+      }
+
+      // Round the event out to whole hours, then to the whole day.
+      TimeRange when = event.getWhen();
+      int start = when.start() / 60 * 60;
+      int end = Math.min((when.end() + 59) / 60 * 60, TimeRange.END_OF_DAY + 1);
+      for (TimeRange simpler : new TimeRange[] {TimeRange.fromStartEnd(start, end, false),
+          TimeRange.WHOLE_DAY}) {
+        if (!simpler.equals(when) && simpler.duration() >= when.duration()) {
+          candidates.add(withEvent(fuzzCase, i,
+              new Event(event.getTitle(), simpler, event.getAttendees())));
+        }
+      }
+    }
+
+    for (long duration : new long[] {0, 1, 30, 60}) {
+      if (duration < fuzzCase.duration) {
+        candidates.add(new Case(events, fuzzCase.attendees, fuzzCase.optionalAttendees, duration));
+      }
+    }
+    return candidates;
+  }
+
+  private static Case withEvent(Case fuzzCase, int index, Event event) {
+    List<Event> events = new ArrayList<>(fuzzCase.events);
+    events.set(index, event);
+    return new Case(events, fuzzCase.attendees, fuzzCase.optionalAttendees, fuzzCase.duration);
+  }
+
+  private static List<String> people(int count) {
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      people.add("Person " + (i + 1));
+    }
+    return people;
+  }
+
+  /**
+   * Returns up to a dozen events among {@code people}, leaning towards the edges that engines get
+   * wrong: events with no duration, events that start at the start of the day or end at its end,
+   * and events that overlap, nest inside or repeat an earlier one.
+   */
+  static List<Event> generateEvents(Random random, List<String> people) {
+    List<Event> events = new ArrayList<>();
+    int count = random.nextInt(13);
+    for (int i = 0; i < count; i++) {
+      TimeRange when = generateTime(random, events);
+      List<String> attendees = new ArrayList<>();
+      for (String person : people) {
+        if (random.nextInt(3) == 0) {
+          attendees.add(person);
+        }
+      }
+      events.add(new Event("Event " + (i + 1), when, attendees));
+    }
+    return events;
+  }
+
+  private static TimeRange generateTime(Random random, List<Event> earlier) {
+    int start = random.nextInt(TimeRange.END_OF_DAY + 1);
+    switch (random.nextInt(8)) {
+      case 0:
+        return TimeRange.fromStartDuration(start, 0);
+      case 1:
+        return TimeRange.fromStartEnd(start, TimeRange.END_OF_DAY, true);
+      case 2:
+        return TimeRange.fromStartEnd(TimeRange.START_OF_DAY, start, true);
+      case 3:
+        return TimeRange.WHOLE_DAY;
+      default:
+        if (!earlier.isEmpty()) {
+          TimeRange other = earlier.get(random.nextInt(earlier.size())).getWhen();
+          switch (random.nextInt(3)) {
+            case 0:
+              return other;
+            case 1:
+              // Nested inside the other event.
+              int nestedStart = other.start() + random.nextInt(other.duration() + 1);
+              return TimeRange.fromStartEnd(
+                  nestedStart, nestedStart + random.nextInt(other.end() - nestedStart + 1), false);
+            default:
+              // Overlapping the end of the other event.
+              int overlapStart = other.start() + random.nextInt(other.duration() + 1);
+              return TimeRange.fromStartEnd(overlapStart, Math.min(TimeRange.END_OF_DAY + 1,
+                  overlapStart + other.duration() + random.nextInt(120)), false);
+          }
+        }
+        return TimeRange.fromStartEnd(
+            start, Math.min(TimeRange.END_OF_DAY + 1, start + random.nextInt(240)), false);
+    }
+  }
+
+  /**
+   * Returns a request against {@code events} from a quarter or a half of {@code people} and
+   * sometimes someone who has no events at all, with a duration that is often on the edge of
+   * fitting.
+   */
+  static Case generateRequest(Random random, List<Event> events, List<String> people) {
+    List<String> attendees = new ArrayList<>();
+    List<String> optionalAttendees = new ArrayList<>();
+    List<String> candidates = new ArrayList<>(people);
+    candidates.add("Nobody");
+    int odds = random.nextBoolean() ? 4 : 2;
+    for (String person : candidates) {
+      if (random.nextInt(odds) == 0) {
+        attendees.add(person);
+      } else if (random.nextInt(4) == 0) {
+        optionalAttendees.add(person);
+      }
+    }
+
+    long duration = random.nextInt(3) == 0
+        ? 1 + random.nextInt(TimeRange.END_OF_DAY)
+        : DURATIONS[random.nextInt(DURATIONS.length)];
+    return new Case(events, attendees, optionalAttendees, duration);
+  }
+}
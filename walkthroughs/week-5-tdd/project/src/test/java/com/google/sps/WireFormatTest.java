@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WireFormatTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person \u00c7";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  @Test
+  public void timeRangesRoundTrip() {
+    // Out of order on purpose, so that one start delta is negative.
+    List<TimeRange> ranges = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES),
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    byte[] bytes = WireFormat.encodeTimeRanges(ranges);
+
+    assertEquals(ranges, WireFormat.decodeTimeRanges(bytes));
+    // Kind, count, and two or three bytes for each range.
+    assertTrue(bytes.length <= 2 + 3 * ranges.size());
+    assertEquals(Collections.emptyList(),
+        WireFormat.decodeTimeRanges(WireFormat.encodeTimeRanges(Collections.emptyList())));
+  }
+
+  @Test
+  public void eventsRoundTrip() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0900AM, DURATION_60_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_C, PERSON_A)),
+        new Event("", TimeRange.fromStartDuration(TIME_1000AM, 0),
+            Collections.<String>emptyList()));
+
+    assertEquals(events, WireFormat.decodeEvents(WireFormat.encodeEvents(events)));
+  }
+
+  @Test
+  public void rejectsMalformedBytes() {
+    byte[] ranges = WireFormat.encodeTimeRanges(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES)));
+    assertMalformed(() -> WireFormat.decodeEvents(ranges));
+    assertMalformed(() -> WireFormat.decodeTimeRanges(Arrays.copyOf(ranges, ranges.length - 1)));
+    assertMalformed(() -> WireFormat.decodeTimeRanges(Arrays.copyOf(ranges, ranges.length + 1)));
+
+    // A count far longer than the message must not be allocated.
+    assertMalformed(() -> WireFormat.decodeTimeRanges(new byte[] {1, (byte) 0xFF, 0x7F}));
+  }
+
+  @Test
+  public void refusesToEncodeNegativeDurations() {
+    // Ends before it starts.
+    TimeRange backwards = TimeRange.fromStartEnd(TIME_0900AM, TIME_0800AM, false);
+
+    assertMalformed(() -> WireFormat.encodeTimeRanges(Arrays.asList(backwards)));
+    assertMalformed(() -> WireFormat.encodeEvents(
+        Arrays.asList(new Event("Event 1", backwards, Arrays.asList(PERSON_A)))));
+  }
+
+  @Test
+  public void acceptedOnlyWhenNamedWithAQuality() {
+    assertTrue(WireFormat.isAccepted(WireFormat.MEDIA_TYPE));
+    assertTrue(WireFormat.isAccepted("application/json;q=0.9, " + WireFormat.MEDIA_TYPE));
+    assertTrue(WireFormat.isAccepted("APPLICATION/X-SPS-CALENDAR ; Q=0.5"));
+
+    assertFalse(WireFormat.isAccepted(null));
+    assertFalse(WireFormat.isAccepted("*/*"));
+    assertFalse(WireFormat.isAccepted("application/*, application/json"));
+    assertFalse(WireFormat.isAccepted(WireFormat.MEDIA_TYPE + ";q=0, */*"));
+    assertFalse(WireFormat.isAccepted(WireFormat.MEDIA_TYPE + ";q=0.0"));
+    assertFalse(WireFormat.isAccepted(WireFormat.MEDIA_TYPE + ";q=often"));
+    // Another type that merely starts with the same name.
+    assertFalse(WireFormat.isAccepted(WireFormat.MEDIA_TYPE + "-v2"));
+  }
+
+  private static void assertMalformed(Runnable decode) {
+    try {
+      decode.run();
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException expected) {
+      // Expected.
+    }
+  }
+}
@@ -0,0 +1,126 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarService;
+import com.google.sps.CalendarSnapshot;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryCache;
+import com.google.sps.TimeRange;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchQueryServletTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final long DEADLINE_MILLIS = 5000;
+
+  private CalendarSnapshot snapshot;
+  private QueryCache cache;
+  private QueryScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    snapshot = new CalendarService(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)))).snapshot();
+    cache = new QueryCache(16);
+    scheduler = new QueryScheduler(2, BatchQueryServlet.MAX_BATCH_SIZE);
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void answersInTheOrderOfTheRequests() throws Exception {
+    MeetingRequest[] requests = {
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES)};
+
+    List<Collection<TimeRange>> actual =
+        BatchQueryServlet.answerAll(requests, snapshot, cache, scheduler, DEADLINE_MILLIS);
+
+    FindMeetingQuery query = new FindMeetingQuery();
+    assertEquals(requests.length, actual.size());
+    for (int i = 0; i < requests.length; i++) {
+      assertEquals(query.query(snapshot, requests[i]), actual.get(i));
+    }
+  }
+
+  @Test
+  public void missingBatchIsBadRequest() {
+    assertStatus(HttpServletResponse.SC_BAD_REQUEST, null);
+  }
+
+  @Test
+  public void nullRequestIsBadRequest() {
+    assertStatus(HttpServletResponse.SC_BAD_REQUEST, new MeetingRequest[] {
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES), null});
+  }
+
+  @Test
+  public void tooBigBatchIsRefused() {
+    MeetingRequest[] requests = new MeetingRequest[BatchQueryServlet.MAX_BATCH_SIZE + 1];
+    Arrays.fill(requests, new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES));
+
+    assertStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, requests);
+    assertEquals(0, cache.getMissCount());
+  }
+
+  @Test
+  public void batchThatDoesNotFitInTheSchedulerIsOverloaded() {
+    // One thread and a queue of one, so at most two requests of the batch can be taken.
+    scheduler.shutdown();
+    scheduler = new QueryScheduler(1, 1);
+    MeetingRequest[] requests = new MeetingRequest[BatchQueryServlet.MAX_BATCH_SIZE];
+    Arrays.fill(requests, new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES));
+
+    assertStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE, requests);
+    assertEquals(1, scheduler.getRejectedCount());
+    assertEquals(0, scheduler.getQueueDepth());
+  }
+
+  private void assertStatus(int status, MeetingRequest[] requests) {
+    try {
+      BatchQueryServlet.answerAll(requests, snapshot, cache, scheduler, DEADLINE_MILLIS);
+      fail("expected the batch to be turned down");
+    } catch (BatchQueryServlet.BadBatch e) {
+      assertEquals(status, e.status);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.MeetingRequest;
+import java.util.Arrays;
+import javax.servlet.http.HttpServletResponse;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PlanServletTest {
+  // Some people that we can use in our tests.
+  private static final String PERSON_A = "Person A";
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void acceptsPlansUpToTheLimit() throws Exception {
+    MeetingRequest[] requests = new MeetingRequest[PlanServlet.MAX_PLAN_SIZE];
+    Arrays.fill(requests, new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES));
+
+    PlanServlet.checkRequests(requests);
+    PlanServlet.checkRequests(new MeetingRequest[0]);
+  }
+
+  @Test
+  public void rejectsPlansThatAreTooBig() {
+    MeetingRequest[] requests = new MeetingRequest[PlanServlet.MAX_PLAN_SIZE + 1];
+    Arrays.fill(requests, new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES));
+
+    assertRejected(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, requests);
+  }
+
+  @Test
+  public void rejectsNullRequests() {
+    MeetingRequest[] requests = {
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES), null};
+
+    assertRejected(HttpServletResponse.SC_BAD_REQUEST, requests);
+  }
+
+  @Test
+  public void budgetIsCappedAndCannotBeNegative() throws Exception {
+    assertEquals(150, PlanServlet.budgetMillisOf("150"));
+    assertEquals(PlanServlet.MAX_BUDGET_MILLIS,
+        PlanServlet.budgetMillisOf(Long.toString(Long.MAX_VALUE)));
+
+    for (String budget : new String[] {"-1", "soon"}) {
+      try {
+        PlanServlet.budgetMillisOf(budget);
+        fail("Expected a BadPlan for " + budget);
+      } catch (PlanServlet.BadPlan expected) {
+        assertEquals(HttpServletResponse.SC_BAD_REQUEST, expected.status);
+      }
+    }
+  }
+
+  private static void assertRejected(int status, MeetingRequest[] requests) {
+    try {
+      PlanServlet.checkRequests(requests);
+      fail("Expected a BadPlan");
+    } catch (PlanServlet.BadPlan expected) {
+      assertEquals(status, expected.status);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QuerySchedulerTest {
+  private QueryScheduler scheduler;
+  private CountDownLatch running;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() throws InterruptedException {
+    // One thread and room for one more query. Keep the thread busy until the test releases it.
+    scheduler = new QueryScheduler(1, 1);
+    running = new CountDownLatch(1);
+    release = new CountDownLatch(1);
+    scheduler.submit(() -> {
+      running.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    assertTrue(running.await(5, TimeUnit.SECONDS));
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    scheduler.shutdown();
+  }
+
+  @Test
+  public void rejectsQueriesThatDoNotFitInTheQueue() {
+    scheduler.submit(() -> {});
+
+    try {
+      scheduler.submit(() -> {});
+      fail("expected the full queue to refuse the query");
+    } catch (RejectedExecutionException expected) {
+      // The queue holds one query and the only thread is busy.
+    }
+
+    assertEquals(1, scheduler.getQueueDepth());
+    assertEquals(1, scheduler.getQueueCapacity());
+    assertEquals(1, scheduler.getActiveCount());
+    assertEquals(1, scheduler.getRejectedCount());
+    assertEquals(0, scheduler.getTimedOutCount());
+  }
+
+  @Test
+  public void timedOutQueryLeavesTheQueueAndNeverRuns() throws Exception {
+    AtomicBoolean ran = new AtomicBoolean();
+    Future<?> queued = scheduler.submit(() -> ran.set(true));
+
+    scheduler.timeOut(queued);
+
+    assertEquals(1, scheduler.getTimedOutCount());
+    assertEquals(0, scheduler.getQueueDepth());
+    assertTrue(queued.isCancelled());
+
+    // Its place in the queue is free again.
+    Future<?> next = scheduler.submit(() -> {});
+    release.countDown();
+    next.get(5, TimeUnit.SECONDS);
+    assertFalse(ran.get());
+    assertEquals(0, scheduler.getRejectedCount());
+  }
+
+  @Test
+  public void queryThatNeverStartedStillCountsAsTimedOut() {
+    // A query can miss its deadline before the scheduler has handed back its future.
+    scheduler.timeOut(null);
+
+    assertEquals(1, scheduler.getTimedOutCount());
+  }
+}